@@ -1,5 +1,18 @@
 package com.hotelbooking.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.entity.OccupancyCube;
+import com.hotelbooking.entity.PricingRule;
+import com.hotelbooking.entity.Review;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.entity.RoomHold;
+import com.hotelbooking.entity.RoomNight;
+import com.hotelbooking.entity.User;
+import com.hotelbooking.entity.WaitlistEntry;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
@@ -7,14 +20,26 @@ import com.mongodb.client.model.IndexOptions;
 import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
 import org.springframework.stereotype.Component;
 
 
 @Component
 public class MongoIndexConfig implements CommandLineRunner {
 
+    // MongoConfig builds its own MongoTemplate, which never creates annotated indexes by itself
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            User.class, Room.class, Booking.class, Review.class, PricingRule.class, OccupancyCube.class,
+            RoomHold.class, RoomNight.class, WaitlistEntry.class, Hotel.class);
+
     @Autowired
     private MongoClient mongoClient;
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     @Override
     public void run(String... args) {
@@ -31,5 +56,49 @@ public class MongoIndexConfig implements CommandLineRunner {
         );
 
         System.out.println("✅ Unique index created on 'roomNumber' field.");
+
+        // ✅ @Indexed / @CompoundIndex declarations of every entity, created and then checked
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            ensureIndexes(entity, resolver.resolveIndexFor(entity));
+        }
+    }
+
+    private void ensureIndexes(Class<?> entity, Iterable<? extends IndexDefinition> definitions) {
+        String collection = mongoTemplate.getCollectionName(entity);
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        List<IndexDefinition> wanted = new ArrayList<>();
+        for (IndexDefinition definition : definitions) {
+            wanted.add(definition);
+            try {
+                indexOps.createIndex(definition);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Could not create index " + definition.getIndexKeys() + " on '" + collection + "': " + e.getMessage());
+            }
+        }
+
+        try {
+            List<Document> existing = mongoTemplate.getCollection(collection).listIndexes().into(new ArrayList<>());
+            List<String> missing = new ArrayList<>();
+            for (IndexDefinition definition : wanted) {
+                if (existing.stream().noneMatch(index -> covers(index, definition))) {
+                    missing.add(definition.getIndexOptions().getString("name"));
+                }
+            }
+            if (missing.isEmpty()) {
+                System.out.println("✅ Indexes on '" + collection + "': "
+                        + existing.stream().map(index -> index.getString("name")).toList());
+            } else {
+                System.err.println("❌ Missing indexes on '" + collection + "': " + missing);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Could not list indexes on '" + collection + "': " + e.getMessage());
+        }
+    }
+
+    // Same keys, under any name; a TTL index only counts when the server actually expires documents with it
+    private static boolean covers(Document index, IndexDefinition definition) {
+        if (!index.get("key", Document.class).equals(definition.getIndexKeys())) return false;
+        return !definition.getIndexOptions().containsKey("expireAfterSeconds") || index.containsKey("expireAfterSeconds");
     }
 }
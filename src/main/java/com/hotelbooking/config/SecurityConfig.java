@@ -1,5 +1,6 @@
 package com.hotelbooking.config;
 
+import com.hotelbooking.dto.CursorPage;
 import com.hotelbooking.security.JwtAuthFilter;
 import com.hotelbooking.service.CustomUserDetailsService;
 
@@ -68,10 +69,14 @@ public class SecurityConfig  {
                     "/api/blogs/all",
                     "/uploads/**",
                     "/images/**",
-                    "/api/hotels/search"
+                    "/api/hotels/search",
+                    "/api/hotels/search/facets",
+                    "/api/pricing/quote"
                 ).permitAll()
                 // Booking endpoints → require USER role
                 .requestMatchers("/api/bookings/**").hasAnyRole("USER","ADMIN")
+                .requestMatchers("/api/holds/**").hasAnyRole("USER","ADMIN")
+                .requestMatchers("/api/waitlist/**").hasAnyRole("USER","ADMIN")
 
                 // Admin
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -137,6 +142,7 @@ public class SecurityConfig  {
                         )
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders(CursorPage.NEXT_CURSOR_HEADER)
                         .allowCredentials(true);
             }
         };
@@ -166,7 +172,7 @@ public class SecurityConfig  {
         ));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("Authorization", "Content-Type"));
-        configuration.setExposedHeaders(List.of("Authorization", "Set-Cookie"));
+        configuration.setExposedHeaders(List.of("Authorization", "Set-Cookie", CursorPage.NEXT_CURSOR_HEADER));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
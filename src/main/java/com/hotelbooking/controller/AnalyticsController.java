@@ -0,0 +1,52 @@
+package com.hotelbooking.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.service.OccupancyCubeService;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private OccupancyCubeService occupancyCubeService;
+
+    // ✅ Occupancy, revenue and cancellations of a hotel per night (defaults to the last 365 days)
+    @GetMapping("/occupancy")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> occupancy(@RequestParam String hotelId,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                       @RequestParam(required = false) String roomType) {
+        LocalDate to = toDate != null ? toDate : LocalDate.now();
+        LocalDate from = fromDate != null ? fromDate : to.minusDays(364);
+        try {
+            return ResponseEntity.ok(occupancyCubeService.report(hotelId, from, to, roomType));
+        } catch (BookingException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ Rebuild every cube from the Bookings collection (also runs nightly)
+    @PostMapping("/occupancy/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuild() {
+        try {
+            occupancyCubeService.rebuild();
+            return ResponseEntity.ok("Occupancy cubes rebuilt");
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to rebuild occupancy cubes: " + e.getMessage());
+        }
+    }
+}
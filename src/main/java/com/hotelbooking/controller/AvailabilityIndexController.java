@@ -0,0 +1,48 @@
+package com.hotelbooking.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.service.RoomAvailabilityIndex;
+
+@RestController
+@RequestMapping("/api/admin/availability-index")
+public class AvailabilityIndexController {
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    // ✅ Rooms, reservations and memory footprint
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> stats() {
+        return ResponseEntity.ok(availabilityIndex.stats());
+    }
+
+    // ✅ Check the index against the Bookings collection
+    @GetMapping("/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> verify() {
+        try {
+            return ResponseEntity.ok(availabilityIndex.verify());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to verify availability index: " + e.getMessage());
+        }
+    }
+
+    // ✅ Reload the index from the Bookings collection
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuild() {
+        try {
+            return ResponseEntity.ok(availabilityIndex.rebuild());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to rebuild availability index: " + e.getMessage());
+        }
+    }
+}
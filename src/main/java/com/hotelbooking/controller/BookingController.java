@@ -1,24 +1,32 @@
 package com.hotelbooking.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceConflictException;
 import com.hotelbooking.exception.ResourceNotFoundException;
-import com.hotelbooking.repository.RoomRepository;
 import com.hotelbooking.repository.UserRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.core.Authentication;
 
 
 import com.hotelbooking.dto.BookingRequest;
+import com.hotelbooking.dto.GroupBookingRequest;
 import com.hotelbooking.entity.Booking;
-import com.hotelbooking.entity.Room;
 import com.hotelbooking.entity.User;
 import com.hotelbooking.enums.BookingStatus;
+import com.hotelbooking.service.BookingExportService;
 import com.hotelbooking.service.BookingService;
 
 import jakarta.validation.Valid;
@@ -33,7 +41,7 @@ public class BookingController {
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private RoomRepository roomRepository;
+    private BookingExportService bookingExportService;
 
     // ✅ Utility method for reuse
     private boolean isAdmin(Authentication auth) {
@@ -46,23 +54,28 @@ public class BookingController {
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
     public ResponseEntity<?> bookRoom(@RequestBody @Valid BookingRequest request, Authentication authentication) {
         try {
-            // ✅ Get logged-in user
-            String username = authentication.getName();
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new BookingException("User not found"));
+            // ✅ User comes from the token (ignore any userId/hotelId in the body); the service loads each entity once
+            Booking booking = bookingService.createBooking(request, authentication.getName());
+            return ResponseEntity.ok(booking);
 
-            // ✅ Inject userId from token (ignore any malicious userId)
-            request.setUserId(user.getId());
+        } catch (BookingException ex) {
+            return ResponseEntity.badRequest().body("Booking Error: " + ex.getMessage());
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body("Server Error: " + ex.getMessage());
+        }
+    }
 
-            // ✅ Validate hotelId from room
-            Room room = roomRepository.findById(request.getRoomId())
-                    .orElseThrow(() -> new BookingException("Room not found"));
 
-            request.setHotelId(room.getHotelId()); // auto fill from DB
+    // ✅ Book several rooms for the same dates in one request (all or nothing)
+    @PostMapping("/group")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> bookGroup(@RequestBody @Valid GroupBookingRequest request, Authentication authentication) {
+        try {
+            User user = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new BookingException("User not found"));
 
-            // ✅ Create booking
-            Booking booking = bookingService.createBooking(request);
-            return ResponseEntity.ok(booking);
+            List<Booking> bookings = bookingService.createGroupBooking(request, user);
+            return ResponseEntity.ok(bookings);
 
         } catch (BookingException ex) {
             return ResponseEntity.badRequest().body("Booking Error: " + ex.getMessage());
@@ -86,10 +99,12 @@ public class BookingController {
 
     @GetMapping("/allbooking")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getAllBookings() {
+    public ResponseEntity<?> getAllBookings(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int size) {
         try {
-            List<Booking> bookings = bookingService.getAllBookings();
-            return ResponseEntity.ok(bookings);
+            return bookingService.getBookingsPage(cursor, size).toResponse();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
         } catch (Exception ex) {
             ex.printStackTrace(); // Add this for debug
             return ResponseEntity.internalServerError().body("Failed to retrieve bookings");
@@ -123,16 +138,54 @@ public class BookingController {
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getBookingsByStatus(@PathVariable String status) {
+        BookingStatus bookingStatus;
+        try {
+            bookingStatus = BookingStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body("Unknown booking status: " + status);
+        }
         try {
-            List<Booking> bookings = bookingService.getAllBookings();
-            List<Booking> filtered = bookings.stream()
-                .filter(b -> b.getStatus().name().equalsIgnoreCase(status))
-                .toList();
-            return ResponseEntity.ok(filtered);
+            return ResponseEntity.ok(bookingService.getBookingsByStatus(bookingStatus));
         } catch (Exception ex) {
             return ResponseEntity.internalServerError().body("Error filtering bookings");
         }
     }
+
+    // ✅ Admin search by status, hotel, user, stay dates and booking number
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> searchBookings(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String hotelId,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String bookingNumber,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("Page must be >= 0 and size between 1 and 100.");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().body("'from' must be before or equal to 'to'.");
+        }
+        BookingStatus bookingStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                bookingStatus = BookingStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body("Unknown booking status: " + status);
+            }
+        }
+
+        try {
+            return ResponseEntity.ok(bookingService.searchBookings(
+                    bookingStatus, hotelId, userId, from, to, bookingNumber, page, size));
+        } catch (Exception ex) {
+            return ResponseEntity.internalServerError().body("Error searching bookings: " + ex.getMessage());
+        }
+    }
  
 //cancelstatus code
     @PutMapping("/cancelstatus/{id}")
@@ -150,19 +203,76 @@ public class BookingController {
                 return ResponseEntity.status(403).body("You are not allowed to cancel this booking.");
             }
 
-            booking.setStatus(BookingStatus.CANCELLED);
-            bookingService.save(booking);
+            // ✅ One conditional $set; a concurrent change is reported instead of overwritten
+            bookingService.cancelBooking(booking);
 
             return ResponseEntity.ok("Booking status updated to CANCELLED.");
+        } catch (ResourceConflictException e) {
+            return ResponseEntity.status(409).body("Failed to cancel booking: " + e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(400).body("Failed to cancel booking: " + e.getMessage());
         }
     }
 
+    // ✅ One-off: copy hotelId from rooms onto older bookings
+    @PostMapping("/admin/backfill-hotel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> backfillHotelIds() {
+        try {
+            long remaining = bookingService.backfillHotelIds();
+            return ResponseEntity.ok(Map.of("remainingWithoutHotel", remaining));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to backfill hotel ids: " + e.getMessage());
+        }
+    }
+
+    // ✅ Run the status transition job now instead of waiting for the schedule
+    @PostMapping("/admin/advance-statuses")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> advanceStatuses() {
+        try {
+            return ResponseEntity.ok(bookingService.advanceStatuses());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to advance booking statuses: " + e.getMessage());
+        }
+    }
+
+    // ✅ Stream the booking history as NDJSON or CSV, optionally by hotel and stay dates
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportBookings(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String hotelId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().body("'from' must be before or equal to 'to'.");
+        }
+
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.csv\"")
+                    .body(bookingExportService.exportCsv(hotelId, from, to));
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.ndjson\"")
+                    .body(bookingExportService.exportNdjson(hotelId, from, to));
+        }
+        return ResponseEntity.badRequest().body("Unsupported export format: " + format);
+    }
+
 //    Add Endpoint to Download Invoice
     @GetMapping("/invoice/{id}")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public ResponseEntity<byte[]> downloadInvoice(@PathVariable String id, Authentication authentication) {
+    public ResponseEntity<StreamingResponseBody> downloadInvoice(@PathVariable String id,
+                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                 Authentication authentication) {
         try {
             Booking booking = bookingService.getBookingById(id);
             String loggedInUsername = authentication.getName();
@@ -174,7 +284,7 @@ public class BookingController {
                 return ResponseEntity.status(403).build();
             }
 
-            return bookingService.generateInvoicePdf(booking);
+            return bookingService.generateInvoicePdf(booking, ifNoneMatch);
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
         }
@@ -0,0 +1,53 @@
+package com.hotelbooking.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.service.CatalogImportService;
+import com.hotelbooking.service.HotelRoomLinks;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/admin/catalog")
+public class CatalogController {
+
+    @Autowired
+    private HotelRoomLinks hotelRoomLinks;
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    // ✅ Stream an NDJSON or CSV file of hotels or rooms as the raw request body, e.g.
+    //    curl --data-binary @rooms.csv -H 'Content-Type: text/csv' '/api/admin/catalog/import/rooms?format=csv'
+    @PostMapping("/import/{type}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importCatalog(@PathVariable String type,
+                                           @RequestParam(defaultValue = "ndjson") String format,
+                                           HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(catalogImportService.importCatalog(type, format, request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Catalog import failed: " + e.getMessage());
+        }
+    }
+
+    // ✅ Rebuild every hotel's room ids, room count and price range from Rooms (also runs nightly)
+    @PostMapping("/room-links/repair")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> repairRoomLinks() {
+        try {
+            hotelRoomLinks.repair();
+            return ResponseEntity.ok("Hotel room links repaired");
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to repair hotel room links: " + e.getMessage());
+        }
+    }
+}
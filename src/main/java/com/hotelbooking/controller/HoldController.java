@@ -0,0 +1,78 @@
+package com.hotelbooking.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.dto.HoldRequest;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.service.HoldService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+
+    @Autowired
+    private HoldService holdService;
+
+    // ✅ Keep a room for a few minutes while the guest checks out
+    @PostMapping
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> placeHold(@RequestBody @Valid HoldRequest request, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(holdService.placeHold(request, authentication.getName()));
+        } catch (BookingException ex) {
+            return ResponseEntity.badRequest().body("Hold Error: " + ex.getMessage());
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body("Server Error: " + ex.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> getHold(@PathVariable String id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(holdService.getHold(id, authentication.getName()));
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.status(404).body(ex.getMessage());
+        }
+    }
+
+    // ✅ Turn the hold into a booking
+    @PostMapping("/{id}/confirm")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> confirmHold(@PathVariable String id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(holdService.confirmHold(id, authentication.getName()));
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.status(404).body(ex.getMessage());
+        } catch (BookingException ex) {
+            return ResponseEntity.badRequest().body("Booking Error: " + ex.getMessage());
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body("Server Error: " + ex.getMessage());
+        }
+    }
+
+    // ✅ Release the room early
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> releaseHold(@PathVariable String id, Authentication authentication) {
+        try {
+            holdService.releaseHold(id, authentication.getName());
+            return ResponseEntity.ok("Hold released");
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.status(404).body(ex.getMessage());
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.hotelbooking.controller;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.hotelbooking.dto.CursorPage;
 import com.hotelbooking.dto.HotelRequest;
 import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.service.AvailabilityMatrixService;
+import com.hotelbooking.service.CatalogImportService;
+import com.hotelbooking.service.HotelDetailService;
+import com.hotelbooking.service.HotelFacetIndex;
 import com.hotelbooking.service.HotelService;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.HotelException;
 import com.hotelbooking.exception.ResourceNotFoundException;
 import com.hotelbooking.repository.HotelRepository;
 import org.springframework.http.HttpStatus;
@@ -25,6 +36,14 @@ public class HotelController {
     private HotelService hotelService;
     @Autowired
     private HotelRepository hotelRepo;
+    @Autowired
+    private AvailabilityMatrixService availabilityMatrixService;
+    @Autowired
+    private HotelFacetIndex hotelFacetIndex;
+    @Autowired
+    private HotelDetailService hotelDetailService;
+    @Autowired
+    private CatalogImportService catalogImportService;
     
     public HotelController(HotelService hotelService) {
         this.hotelService = hotelService;
@@ -43,21 +62,16 @@ public class HotelController {
 
     @PostMapping("/add-multiple")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Hotel>> addMultipleHotels(@RequestBody List<HotelRequest> requests) {
-        try {
-            List<Hotel> addedHotels = requests.stream()
-                .map(hotelService::addHotel)
-                .toList();
-            return ResponseEntity.ok(addedHotels);
-        } catch (Exception e) {
-            throw new RuntimeException("Error while adding multiple hotels: " + e.getMessage());
-        }
+    public ResponseEntity<?> addMultipleHotels(@RequestBody List<HotelRequest> requests) {
+        // ✅ Chunked $in duplicate check + unordered bulk insert; a bad hotel is reported, not fatal
+        return ResponseEntity.ok(catalogImportService.importHotels(requests));
     }
 
     // ✅ Get all hotels
     @GetMapping("/all")
-    public ResponseEntity<List<Hotel>> getAllHotels() {
-        return ResponseEntity.ok(hotelService.getAllHotels());
+    public ResponseEntity<List<Hotel>> getAllHotels(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int size) {
+        return hotelService.getHotelsPage(cursor, size).toResponse();
     }
 
     // ✅ Get hotel by ID
@@ -79,6 +93,22 @@ public class HotelController {
         }
     }
 
+    // ✅ Hotel page in one call: hotel, rooms, rating summary and latest reviews
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<?> getHotelDetail(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(hotelDetailService.detail(id));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                 .body("Invalid hotel ID format: " + id);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Server error: " + e.getMessage());
+        }
+    }
+
     // ✅ Search by location
     @GetMapping("/location/search")
     public ResponseEntity<List<Hotel>> searchByLocation(@RequestParam String location) {
@@ -116,16 +146,114 @@ public class HotelController {
     
     @GetMapping("/limited")
     public List<Hotel> getLimitedHotels(@RequestParam(defaultValue = "5") int count) {
-        return hotelRepo.findLimitedHotels(PageRequest.of(0, count));
+        return hotelRepo.findLimitedHotels(PageRequest.of(0, CursorPage.clamp(count)));
     }
     
  // ✅ Search hotels by name (for HeroSection search bar)
     @GetMapping("/search")
-    public ResponseEntity<List<Hotel>> searchHotelsByName(@RequestParam("query") String query) {
-        List<Hotel> hotels = hotelRepo.findByNameContainingIgnoreCase(query);
+    public ResponseEntity<List<Hotel>> searchHotelsByName(@RequestParam("query") String query,
+                                                          @RequestParam(defaultValue = "10") int limit) {
+        List<Hotel> hotels = hotelService.searchHotels(query, limit);
         return ResponseEntity.ok(hotels);
     }
 
-    
-    
+    // ✅ Facet filters (repeat a parameter to OR values) with per-value counts, e.g. ?location=Goa&price=100-200&roomType=Suite
+    @GetMapping("/search/facets")
+    public ResponseEntity<?> facetedSearch(
+            @RequestParam(required = false) List<String> location,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(required = false) List<String> rating,
+            @RequestParam(required = false) List<String> roomType,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("Page must be >= 0 and size between 1 and 100.");
+        }
+
+        Map<String, List<String>> selected = new HashMap<>();
+        selected.put(HotelFacetIndex.LOCATION, location);
+        selected.put(HotelFacetIndex.PRICE, price);
+        selected.put(HotelFacetIndex.RATING, rating);
+        selected.put(HotelFacetIndex.ROOM_TYPE, roomType);
+        return ResponseEntity.ok(hotelFacetIndex.search(selected, page, size));
+    }
+
+    // ✅ Hotels in a location with enough free rooms in the price band for the dates
+    @GetMapping("/available/search")
+    public ResponseEntity<?> searchAvailableHotels(
+            @RequestParam String location,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(defaultValue = "1") int rooms,
+            @RequestParam(defaultValue = "0") double minPrice,
+            @RequestParam(defaultValue = "" + Double.MAX_VALUE) double maxPrice,
+            @RequestParam(defaultValue = "price") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if (!checkOut.isAfter(checkIn)) {
+            return ResponseEntity.badRequest().body("Check-out date must be after check-in date.");
+        }
+        if (rooms < 1 || minPrice < 0 || maxPrice < minPrice) {
+            return ResponseEntity.badRequest().body("Invalid rooms or price range.");
+        }
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("Page must be >= 0 and size between 1 and 100.");
+        }
+
+        return ResponseEntity.ok(hotelService.searchAvailableHotels(
+                location, checkIn, checkOut, rooms, minPrice, maxPrice, sort, page, size));
+    }
+
+    // ✅ Hotels near a point, nearest first by default; with dates only those with enough free rooms
+    @GetMapping("/nearby")
+    public ResponseEntity<?> searchNearbyHotels(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(defaultValue = "1") int rooms,
+            @RequestParam(defaultValue = "distance") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if ((checkIn == null) != (checkOut == null)) {
+            return ResponseEntity.badRequest().body("Give both check-in and check-out dates, or neither.");
+        }
+        if (checkIn != null && !checkOut.isAfter(checkIn)) {
+            return ResponseEntity.badRequest().body("Check-out date must be after check-in date.");
+        }
+        if (rooms < 1) {
+            return ResponseEntity.badRequest().body("Invalid rooms.");
+        }
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("Page must be >= 0 and size between 1 and 100.");
+        }
+
+        try {
+            return ResponseEntity.ok(hotelService.searchNearbyHotels(
+                    lat, lng, radiusKm, checkIn, checkOut, rooms, sort, page, size));
+        } catch (HotelException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ Front-desk grid: every room of the hotel × [fromDate, fromDate + days), rows as RLE runs or bitsets
+    @GetMapping("/{hotelId}/availability-matrix")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> availabilityMatrix(
+            @PathVariable String hotelId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(defaultValue = "60") int days,
+            @RequestParam(defaultValue = "rle") String encoding) {
+        try {
+            LocalDate from = fromDate != null ? fromDate : LocalDate.now();
+            return ResponseEntity.ok(availabilityMatrixService.matrix(hotelId, from, days, encoding));
+        } catch (BookingException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
 }
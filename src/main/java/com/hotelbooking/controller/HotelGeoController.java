@@ -0,0 +1,36 @@
+package com.hotelbooking.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.dto.GeoBackfillEntry;
+import com.hotelbooking.exception.HotelException;
+import com.hotelbooking.service.HotelService;
+
+@RestController
+@RequestMapping("/api/admin/hotel-geo")
+public class HotelGeoController {
+
+    @Autowired
+    private HotelService hotelService;
+
+    // ✅ Set coordinates on hotels created before they were stored
+    @PostMapping("/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> backfill(@RequestBody List<GeoBackfillEntry> entries) {
+        try {
+            return ResponseEntity.ok(hotelService.backfillCoordinates(entries));
+        } catch (HotelException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to backfill hotel coordinates: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hotelbooking.controller;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.dto.InvoiceBatchRequest;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.service.InvoiceBatchService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/admin/invoice-batches")
+public class InvoiceBatchController {
+
+    @Autowired
+    private InvoiceBatchService invoiceBatchService;
+
+    // ✅ Queue invoices for every booking of a hotel in a date range
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startBatch(@RequestBody @Valid InvoiceBatchRequest request, Authentication authentication) {
+        try {
+            return ResponseEntity.accepted().body(invoiceBatchService.start(request, authentication.getName()));
+        } catch (BookingException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ Status and progress (processed / total)
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getBatch(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(invoiceBatchService.getJob(id));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+
+    // ✅ Finished ZIP, streamed from disk
+    @GetMapping("/{id}/download")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> download(@PathVariable String id) {
+        try {
+            Path zip = invoiceBatchService.archive(id);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoices_" + id + ".zip\"")
+                    .body(new FileSystemResource(zip));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        } catch (BookingException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
+    }
+}
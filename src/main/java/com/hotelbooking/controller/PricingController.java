@@ -0,0 +1,71 @@
+package com.hotelbooking.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.entity.PricingRule;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.service.PriceCalendarService;
+
+@RestController
+@RequestMapping("/api/pricing")
+public class PricingController {
+
+    @Autowired
+    private PriceCalendarService priceCalendarService;
+
+    // ✅ Per-night prices and total for a stay, answered from memory
+    @GetMapping("/quote")
+    public ResponseEntity<?> quote(@RequestParam String roomId,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        try {
+            return ResponseEntity.ok(priceCalendarService.quote(roomId, fromDate, toDate));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        } catch (BookingException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/rules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRules(@RequestParam String hotelId) {
+        return ResponseEntity.ok(priceCalendarService.getRules(hotelId));
+    }
+
+    // ✅ Create or update a season, weekday or occupancy rule
+    @PostMapping("/rules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> saveRule(@RequestBody PricingRule rule) {
+        try {
+            return ResponseEntity.ok(priceCalendarService.saveRule(rule));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/rules/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> deleteRule(@PathVariable String id) {
+        try {
+            priceCalendarService.deleteRule(id);
+            return ResponseEntity.ok("Pricing rule deleted");
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+}
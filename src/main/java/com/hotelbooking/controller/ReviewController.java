@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.hotelbooking.dto.ReviewRequest;
@@ -31,8 +32,10 @@ public class ReviewController {
     }
 
     @GetMapping("/{hotelId}")
-    public ResponseEntity<List<Review>> getReviews(@PathVariable String hotelId) {
-        return ResponseEntity.ok(reviewService.getReviewsForHotel(hotelId));
+    public ResponseEntity<List<Review>> getReviews(@PathVariable String hotelId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        return reviewService.getReviewsPage(hotelId, cursor, size).toResponse();
     }
 
     @GetMapping("/{hotelId}/average")
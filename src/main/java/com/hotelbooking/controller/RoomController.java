@@ -17,6 +17,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.hotelbooking.dto.CursorPage;
 import com.hotelbooking.dto.RoomRequest;
 import com.hotelbooking.entity.Hotel;
 import com.hotelbooking.entity.Room;
@@ -52,13 +53,8 @@ public class RoomController {
                 room.setImage("default-room.jpg");
             }
 
-            // ✅ Save the room
-            Room savedRoom = roomRepository.save(room);
-
-            // ✅ Add room to hotel's room list
-            Hotel hotel = hotelOpt.get();
-            hotel.getRoomIds().add(savedRoom.getId());
-            hotelRepository.save(hotel);
+            // ✅ Save the room (RoomService links it to the hotel atomically)
+            Room savedRoom = roomService.saveRoom(room);
 
             return ResponseEntity.ok(savedRoom);
         }
@@ -77,10 +73,12 @@ public class RoomController {
 //        }
     }
     @GetMapping("/all")
-    public ResponseEntity<?> getAllRooms() {
+    public ResponseEntity<?> getAllRooms(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int size) {
         try {
-            List<Room> rooms = roomService.getAllRooms();
-            return ResponseEntity.ok(rooms);
+            return roomService.getRoomsPage(cursor, size).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to retrieve rooms.");
         }
@@ -150,7 +148,7 @@ public class RoomController {
     
     @GetMapping("/limited")
     public List<Room> getLimitedRooms(@RequestParam(defaultValue = "5") int count) {
-        return roomRepository.findLimitedRooms(PageRequest.of(0, count));
+        return roomRepository.findLimitedRooms(PageRequest.of(0, CursorPage.clamp(count)));
     }
     
     @GetMapping("/available/search")
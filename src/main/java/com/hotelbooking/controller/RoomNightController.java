@@ -0,0 +1,40 @@
+package com.hotelbooking.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.service.RoomNightLedger;
+
+@RestController
+@RequestMapping("/api/admin/room-nights")
+public class RoomNightController {
+
+    @Autowired
+    private RoomNightLedger roomNightLedger;
+
+    // ✅ Create ledger entries for bookings made before the ledger existed
+    @PostMapping("/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> backfill() {
+        try {
+            return ResponseEntity.ok(roomNightLedger.backfill());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to backfill room nights: " + e.getMessage());
+        }
+    }
+
+    // ✅ Remove past nights and nights whose booking no longer exists
+    @PostMapping("/sweep")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> sweep() {
+        try {
+            return ResponseEntity.ok(roomNightLedger.sweep());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to sweep room nights: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.hotelbooking.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.service.HotelDetailBenchmark;
+import com.hotelbooking.service.OperationTimings;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+public class StatsController {
+
+    @Autowired
+    private OperationTimings operationTimings;
+    @Autowired
+    private HotelDetailBenchmark hotelDetailBenchmark;
+
+    // ✅ Count, average/max latency and per-core rate of timed operations
+    @GetMapping("/timings")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> timings() {
+        return ResponseEntity.ok(operationTimings.snapshot());
+    }
+
+    // ✅ Four separate hotel page calls vs the detail endpoint (built and cached), timed for one hotel
+    @GetMapping("/hotel-detail/{hotelId}/benchmark")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> hotelDetailBenchmark(@PathVariable String hotelId,
+                                                  @RequestParam(defaultValue = "50") int iterations) {
+        try {
+            return ResponseEntity.ok(hotelDetailBenchmark.run(hotelId, iterations));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Benchmark failed: " + e.getMessage());
+        }
+    }
+}
@@ -132,8 +132,9 @@ public class UserController  {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<User>> getAllUsers(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int size) {
+        return userService.getUsersPage(cursor, size).toResponse();
     }
 
     @DeleteMapping("/delete/{id}")
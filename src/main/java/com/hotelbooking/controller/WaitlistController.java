@@ -0,0 +1,59 @@
+package com.hotelbooking.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hotelbooking.dto.WaitlistRequest;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.service.WaitlistService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    // ✅ Wait for a sold-out room (or room type); a hold is offered as soon as nights come free
+    @PostMapping
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> join(@RequestBody @Valid WaitlistRequest request, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(waitlistService.join(request, authentication.getName()));
+        } catch (BookingException ex) {
+            return ResponseEntity.badRequest().body("Waitlist Error: " + ex.getMessage());
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body("Server Error: " + ex.getMessage());
+        }
+    }
+
+    // ✅ My entries; OFFERED ones carry the holdId to confirm
+    @GetMapping
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> myEntries(Authentication authentication) {
+        return ResponseEntity.ok(waitlistService.getEntries(authentication.getName()));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> leave(@PathVariable String id, Authentication authentication) {
+        try {
+            waitlistService.leave(id, authentication.getName());
+            return ResponseEntity.ok("Removed from waitlist");
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.status(404).body(ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.hotelbooking.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rooms × days grid of a hotel. Each row carries either "runs" (RLE: lengths
+ * of alternating free / taken runs, starting with free) or "taken" (base64url
+ * bitset, bit i set = night fromDate + i is booked or held).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityMatrix {
+    private String hotelId;
+    private LocalDate fromDate;
+    private int days;
+    private String encoding;
+    private List<Row> rooms;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Row {
+        private String roomId;
+        private String roomNumber;
+        private String type;
+        private int[] runs;
+        private String taken;
+    }
+}
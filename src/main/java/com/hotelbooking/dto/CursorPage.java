@@ -0,0 +1,69 @@
+package com.hotelbooking.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset (cursor) listing ordered by _id. The cursor is the
+ * opaque, URL-safe encoding of the last id returned; null means no more pages.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private List<T> items;
+    private String nextCursor;
+
+    // ✅ One extra row tells whether another page exists
+    public static Pageable pageable(int size) {
+        return PageRequest.of(0, clamp(size) + 1, Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> idOf) {
+        int limit = clamp(size);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, encode(idOf.apply(items.get(limit - 1))));
+    }
+
+    // ✅ Items as a plain JSON array (unchanged shape for existing clients), cursor in a header
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (nextCursor != null) {
+            builder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return builder.body(items);
+    }
+
+    public static int clamp(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ✅ null/blank cursor = first page; a malformed cursor is an IllegalArgumentException
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,22 @@
+package com.hotelbooking.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.hotelbooking.entity.Hotel;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One page of matching hotels plus, per facet, how many hotels each value would leave
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetedSearchResponse {
+    private List<Hotel> items;
+    private int page;
+    private int size;
+    private long total;
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,18 @@
+package com.hotelbooking.dto;
+
+import org.springframework.data.annotation.Id;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Per-hotel result of RoomRepository.countFreeRoomsByHotel
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FreeRoomCount {
+    @Id
+    private String hotelId;
+    private int freeRooms;
+    private double lowestPrice;
+}
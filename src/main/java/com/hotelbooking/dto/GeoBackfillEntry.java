@@ -0,0 +1,12 @@
+package com.hotelbooking.dto;
+
+import lombok.Data;
+
+// Either one hotel by number, or every hotel at a location that has no coordinates yet
+@Data
+public class GeoBackfillEntry {
+    private String hotelNumber;
+    private String location;
+    private Double latitude;
+    private Double longitude;
+}
@@ -0,0 +1,23 @@
+package com.hotelbooking.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class GroupBookingRequest {
+
+    @NotEmpty(message = "roomIds must not be empty")
+    @Size(max = 50, message = "A group booking can hold at most 50 rooms")
+    private List<String> roomIds;
+
+    @NotNull(message = "fromDate must not be null")
+    private LocalDate fromDate;
+
+    @NotNull(message = "toDate must not be null")
+    private LocalDate toDate;
+}
@@ -0,0 +1,27 @@
+package com.hotelbooking.dto;
+
+import java.time.LocalDate;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class HoldRequest {
+
+    @NotBlank(message = "roomId must not be blank")
+    private String roomId;
+
+    @NotNull(message = "fromDate must not be null")
+    private LocalDate fromDate;
+
+    @NotNull(message = "toDate must not be null")
+    private LocalDate toDate;
+
+    // Optional, defaults to 10 minutes
+    @Min(value = 1, message = "A hold lasts at least 1 minute")
+    @Max(value = 30, message = "A hold lasts at most 30 minutes")
+    private Integer minutes;
+}
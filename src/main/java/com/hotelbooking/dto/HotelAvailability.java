@@ -0,0 +1,16 @@
+package com.hotelbooking.dto;
+
+import com.hotelbooking.entity.Hotel;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HotelAvailability {
+    private Hotel hotel;
+    private int freeRooms;
+    private double lowestPrice;
+}
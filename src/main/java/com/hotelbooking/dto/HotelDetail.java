@@ -0,0 +1,32 @@
+package com.hotelbooking.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.entity.Review;
+import com.hotelbooking.entity.Room;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Everything a hotel page shows, in one response
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HotelDetail {
+    private Hotel hotel;
+    private List<Room> rooms;
+    private RatingSummary rating;
+    private List<Review> latestReviews;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RatingSummary {
+        private double average;
+        private long reviews;
+        private Map<Integer, Long> stars; // 1..5 → number of reviews
+    }
+}
@@ -21,6 +21,8 @@ public class HotelRequest {
 	@NotBlank(message = "Hotel Number must not be blank")
 	private String hotelNumber;
 	private String image;
+	private Double latitude;
+	private Double longitude;
     private List<Review> reviews = new ArrayList<>();
 
 
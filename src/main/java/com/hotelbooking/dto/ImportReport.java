@@ -0,0 +1,55 @@
+package com.hotelbooking.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one catalog import; errors are listed per input row (1-based line numbers)
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    public static final int MAX_ERRORS = 1000;
+
+    private String type;
+    private long rows;
+    private long inserted;
+    private long duplicates;
+    private long failed;
+    private long millis;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    public ImportReport(String type) {
+        this.type = type;
+    }
+
+    public void duplicate(long line, String key, String message) {
+        duplicates++;
+        error(line, key, message);
+    }
+
+    public void failed(long line, String key, String message) {
+        failed++;
+        error(line, key, message);
+    }
+
+    private void error(long line, String key, String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, key, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long line;
+        private String key;
+        private String message;
+    }
+}
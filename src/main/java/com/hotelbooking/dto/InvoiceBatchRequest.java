@@ -0,0 +1,20 @@
+package com.hotelbooking.dto;
+
+import java.time.LocalDate;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class InvoiceBatchRequest {
+
+    @NotBlank(message = "hotelId must not be blank")
+    private String hotelId;
+
+    @NotNull(message = "fromDate must not be null")
+    private LocalDate fromDate;
+
+    @NotNull(message = "toDate must not be null")
+    private LocalDate toDate;
+}
@@ -0,0 +1,20 @@
+package com.hotelbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hotelbooking.entity.Hotel;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// freeRooms and lowestPrice are only filled when the search had dates
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NearbyHotel {
+    private Hotel hotel;
+    private double distanceKm;
+    private Integer freeRooms;
+    private Double lowestPrice;
+}
@@ -0,0 +1,26 @@
+package com.hotelbooking.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.hotelbooking.entity.OccupancyCube;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OccupancyReport {
+    private String hotelId;
+    private String roomType;        // null = all room types
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private int rooms;
+    private long nightsSold;
+    private double revenue;
+    private long cancellations;
+    private double occupancyRate;   // nightsSold / (rooms × days)
+    private List<OccupancyCube> days;
+}
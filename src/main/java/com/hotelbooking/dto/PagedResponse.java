@@ -0,0 +1,17 @@
+package com.hotelbooking.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PagedResponse<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+    private long total;
+}
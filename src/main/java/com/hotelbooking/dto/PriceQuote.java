@@ -0,0 +1,20 @@
+package com.hotelbooking.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceQuote {
+    private String roomId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private List<Double> nightlyPrices;   // one per night, fromDate first
+    private double total;
+    private double averagePerNight;
+}
@@ -0,0 +1,17 @@
+package com.hotelbooking.dto;
+
+import org.springframework.data.annotation.Id;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Per-star result of ReviewRepository.ratingHistogram
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatingCount {
+    @Id
+    private int rating;
+    private long count;
+}
@@ -0,0 +1,23 @@
+package com.hotelbooking.dto;
+
+import java.time.LocalDate;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+// Either roomId, or hotelId together with roomType
+@Data
+public class WaitlistRequest {
+
+    private String roomId;
+
+    private String hotelId;
+
+    private String roomType;
+
+    @NotNull(message = "fromDate must not be null")
+    private LocalDate fromDate;
+
+    @NotNull(message = "toDate must not be null")
+    private LocalDate toDate;
+}
@@ -1,8 +1,11 @@
 package com.hotelbooking.entity;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -15,6 +18,13 @@ import lombok.NoArgsConstructor;
 
 
 @Document(collection = "Bookings")
+@CompoundIndex(name = "hotel_dates", def = "{ 'hotelId': 1, 'fromDate': 1, 'toDate': 1 }")
+@CompoundIndex(name = "room_dates", def = "{ 'roomId': 1, 'fromDate': 1, 'toDate': 1 }")
+@CompoundIndex(name = "status_from", def = "{ 'status': 1, 'fromDate': 1 }")
+@CompoundIndex(name = "status_to", def = "{ 'status': 1, 'toDate': 1 }")
+@CompoundIndex(name = "user_from", def = "{ 'userId': 1, 'fromDate': 1 }")
+@CompoundIndex(name = "from_id", def = "{ 'fromDate': 1, '_id': 1 }")
+@CompoundIndex(name = "hotel_id", def = "{ 'hotelId': 1, '_id': 1 }")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -23,6 +33,8 @@ public class Booking {
     private String id;
     private String userId;
     private String roomId;
+    private String hotelId;
+    private String groupId;     // set when booked as part of a group booking
     
     @Indexed(unique = true)
     private String bookingNumber;
@@ -32,8 +44,13 @@ public class Booking {
     private String username;
 //    private LocalDate bookingDate;
     private String roomNumber;  
+    private String roomType;    // copied from the room when booked (analytics)
     private String hotelName;    
     private BookingStatus status;  //pending, running, completed  
-    private double pricePerNight;
+    private double pricePerNight;           // average of nightlyPrices
+    private List<Double> nightlyPrices;     // quoted price of each night, fromDate first
 
+    // Optimistic lock; every targeted update increments it as well
+    @Version
+    private Long version;
 }
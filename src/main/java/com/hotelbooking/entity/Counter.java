@@ -0,0 +1,19 @@
+package com.hotelbooking.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Named monotonically increasing sequence, advanced only with $inc
+@Document(collection = "counters")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Counter {
+    @Id
+    private String id;
+    private long seq;
+}
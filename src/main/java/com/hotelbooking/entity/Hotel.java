@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -27,7 +30,13 @@ public class Hotel {
     private double pricePerNight;
     private boolean available;
     private List<String> roomIds = new ArrayList<>();
+    // Maintained by HotelRoomLinks on every room write; absent prices mean no rooms
+    private int roomCount;
+    private Double minRoomPrice;
+    private Double maxRoomPrice;
     private double averageRating = 0.0;
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint coordinates; // x = longitude, y = latitude
 
     // Getters & Setters
 }
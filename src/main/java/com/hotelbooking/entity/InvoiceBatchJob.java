@@ -0,0 +1,37 @@
+package com.hotelbooking.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.hotelbooking.enums.InvoiceBatchStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Month-end invoice export for one hotel; lastBookingId is the resume checkpoint
+@Document(collection = "invoice_batch_jobs")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceBatchJob {
+    @Id
+    private String id;
+    private String hotelId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private InvoiceBatchStatus status;
+    private long total;
+    private long processed;
+    private String lastBookingId;
+    // Node running the job and when it last checkpointed; a silent owner loses the job after a while
+    private String owner;
+    private LocalDateTime heartbeatAt;
+    private String requestedBy;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,32 @@
+package com.hotelbooking.entity;
+
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pre-aggregated figures for one hotel, room type and night; _id is hotelId:roomType:day
+@Document(collection = "occupancy_cubes")
+@CompoundIndex(name = "hotel_day", def = "{ 'hotelId': 1, 'day': 1, 'roomType': 1 }")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OccupancyCube {
+    @Id
+    private String id;
+    private String hotelId;
+    private String roomType;
+    private LocalDate day;
+    private long nightsSold;
+    private double revenue;
+    private long cancellations;
+
+    public static String key(String hotelId, String roomType, LocalDate day) {
+        return hotelId + ":" + (roomType == null ? "" : roomType) + ":" + day;
+    }
+}
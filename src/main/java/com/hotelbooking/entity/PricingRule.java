@@ -0,0 +1,37 @@
+package com.hotelbooking.entity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.hotelbooking.enums.PricingRuleType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Multiplier applied to a room's base price on matching nights; roomType null = every type in the hotel
+@Document(collection = "pricing_rules")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PricingRule {
+    @Id
+    private String id;
+
+    @Indexed
+    private String hotelId;
+
+    private String roomType;
+    private PricingRuleType type;
+    private double multiplier;
+
+    private LocalDate fromDate;         // SEASON
+    private LocalDate toDate;           // SEASON
+    private Set<DayOfWeek> daysOfWeek;  // WEEKDAY
+    private double minOccupancy;        // OCCUPANCY, 0..1
+}
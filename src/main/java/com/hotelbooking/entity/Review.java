@@ -2,11 +2,13 @@ package com.hotelbooking.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "reviews")
+@CompoundIndex(name = "hotel_id", def = "{ 'hotelId': 1, '_id': 1 }")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
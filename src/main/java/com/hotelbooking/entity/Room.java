@@ -16,6 +16,7 @@ public class Room {
     @Id private String id;
     @Indexed(unique = true)
     private String roomNumber;
+    @Indexed
     private String hotelId;
     private String type; // Single, Double, Suite
     private double pricePerNight;
@@ -0,0 +1,41 @@
+package com.hotelbooking.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A room kept aside for one user during checkout; MongoDB's TTL monitor removes it after expiresAt
+@Document(collection = "room_holds")
+@CompoundIndex(name = "room_dates", def = "{'roomId': 1, 'fromDate': 1, 'toDate': 1}")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomHold {
+    @Id
+    private String id;
+    private String roomId;
+
+    @Indexed
+    private String hotelId;
+
+    private String userId;
+
+    @Indexed
+    private String username;
+
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private LocalDateTime createdAt;
+
+    @Indexed(name = "expiresAt_ttl", expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
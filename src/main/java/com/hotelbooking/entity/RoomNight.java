@@ -0,0 +1,40 @@
+package com.hotelbooking.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One document per room per booked or held night; the _id (roomId:night) makes double booking a duplicate key
+@Document(collection = "room_nights")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomNight {
+    @Id
+    private String id;
+    private String roomId;
+    @Indexed
+    private LocalDate night;
+
+    // Owning booking, or hold while the guest is still checking out
+    @Indexed
+    private String bookingId;
+
+    // Only set for held nights, so the TTL index frees them if the hold is never confirmed
+    @Indexed(name = "expiresAt_ttl", expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+    // When the current owner got the night; a booking night still without its booking long after this is an orphan
+    private Instant claimedAt;
+
+    public static String key(String roomId, LocalDate night) {
+        return roomId + ":" + night;
+    }
+}
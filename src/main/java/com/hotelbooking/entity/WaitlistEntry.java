@@ -0,0 +1,53 @@
+package com.hotelbooking.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.hotelbooking.enums.WaitlistStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A guest waiting for a specific room (roomId) or any room of a type in a hotel (hotelId + roomType)
+@Document(collection = "waitlist")
+@CompoundIndexes({
+    @CompoundIndex(name = "room_dates", def = "{'roomId': 1, 'fromDate': 1, 'toDate': 1}"),
+    @CompoundIndex(name = "hotel_type_dates", def = "{'hotelId': 1, 'roomType': 1, 'fromDate': 1, 'toDate': 1}")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitlistEntry {
+    @Id
+    private String id;
+    private String userId;
+
+    @Indexed
+    private String username;
+
+    private String roomId;
+    private String hotelId;
+    private String roomType;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private WaitlistStatus status;
+
+    // Set once a hold has been offered; offeredAt is set as soon as the entry is taken for an offer
+    private String holdId;
+    private String offeredRoomId;
+    private LocalDateTime offeredAt;
+
+    private LocalDateTime createdAt;
+
+    // Start of the stay; the TTL index drops entries nobody can use any more
+    @Indexed(name = "expireAt_ttl", expireAfterSeconds = 0)
+    private Instant expireAt;
+}
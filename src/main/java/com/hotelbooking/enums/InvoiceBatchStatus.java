@@ -0,0 +1,8 @@
+package com.hotelbooking.enums;
+
+public enum InvoiceBatchStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
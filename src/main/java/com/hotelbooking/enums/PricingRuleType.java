@@ -0,0 +1,7 @@
+package com.hotelbooking.enums;
+
+public enum PricingRuleType {
+    SEASON,     // fromDate..toDate
+    WEEKDAY,    // daysOfWeek
+    OCCUPANCY   // share of rooms of the type already sold >= minOccupancy
+}
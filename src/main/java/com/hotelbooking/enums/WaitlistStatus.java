@@ -0,0 +1,6 @@
+package com.hotelbooking.enums;
+
+public enum WaitlistStatus {
+    WAITING,
+    OFFERED
+}
@@ -0,0 +1,7 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.entity.Hotel;
+
+// Published after a hotel is saved or deleted; hotel is null when it was deleted
+public record HotelChangedEvent(String hotelId, Hotel hotel) {
+}
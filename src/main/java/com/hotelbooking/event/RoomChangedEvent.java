@@ -0,0 +1,7 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.entity.Room;
+
+// Published after a room is saved or deleted; room is null when it was deleted
+public record RoomChangedEvent(String roomId, Room room) {
+}
@@ -0,0 +1,7 @@
+package com.hotelbooking.event;
+
+import java.time.LocalDate;
+
+// Published when a cancelled or deleted booking, or a lapsed hold, frees nights [fromDate, toDate] of a room
+public record RoomNightsReleasedEvent(String roomId, LocalDate fromDate, LocalDate toDate) {
+}
@@ -3,7 +3,10 @@ package com.hotelbooking.repository;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -18,14 +21,53 @@ public interface BookingRepository extends MongoRepository<Booking, String> {
     List<Booking> findByUserId(String userId);
     Optional<Booking> findByBookingNumber(String bookingNumber);
     List<Booking> findByStatus(BookingStatus status);
+    List<Booking> findAllBy(Pageable pageable);
+    List<Booking> findByIdGreaterThan(String id, Pageable pageable);
+    Stream<Booking> findByStatusNotAndToDateGreaterThanEqual(BookingStatus status, LocalDate toDate);
+    List<Booking> findByRoomIdAndStatusNotAndToDateGreaterThanEqual(String roomId, BookingStatus status, LocalDate toDate);
 
  // BookingRepository.java
     @Query("{ 'roomId': ?0, 'status': { $ne: 'CANCELLED' }, $or: [ { 'fromDate': { $lte: ?2 }, 'toDate': { $gte: ?1 } } ] }")
     List<Booking> findByRoomIdAndDateOverlap(String roomId, LocalDate fromDate, LocalDate toDate);
     
-    @Query("{ 'hotelId': ?0, " +
-            "'checkInDate': { $lt: ?2 }, " +   // booking starts before requested checkout
-            "'checkOutDate': { $gt: ?1 } }")  // booking ends after requested check-in
+    @Query("{ 'hotelId': ?0, 'status': { $ne: 'CANCELLED' }, " +
+            "'fromDate': { $lte: ?2 }, " +   // booking starts on or before the last requested night
+            "'toDate': { $gte: ?1 } }")      // booking ends on or after the first requested night
     List<Booking> findByHotelIdAndDateRange(String hotelId, LocalDate checkIn, LocalDate checkOut);
 
+    long countByHotelIdIsNull();
+
+    // ✅ Copy hotelId from the booked room onto bookings saved before Booking carried it
+    @Aggregation(pipeline = {
+            "{ $match: { hotelId: null } }",
+            "{ $addFields: { roomOid: { $convert: { input: '$roomId', to: 'objectId', onError: '$roomId', onNull: null } } } }",
+            "{ $lookup: { from: 'Rooms', localField: 'roomOid', foreignField: '_id', as: 'room' } }",
+            "{ $project: { hotelId: { $first: '$room.hotelId' } } }",
+            "{ $match: { hotelId: { $ne: null } } }",
+            "{ $merge: { into: 'Bookings', on: '_id', whenMatched: 'merge', whenNotMatched: 'discard' } }"
+    })
+    void backfillHotelIds();
+
+    // ✅ Recompute every occupancy cube from the bookings and swap the collection in ($out)
+    @Aggregation(pipeline = {
+            "{ $match: { hotelId: { $ne: null }, fromDate: { $ne: null }, toDate: { $ne: null } } }",
+            "{ $addFields: { roomOid: { $convert: { input: '$roomId', to: 'objectId', onError: null, onNull: null } } } }",
+            "{ $lookup: { from: 'Rooms', localField: 'roomOid', foreignField: '_id', as: 'room' } }",
+            "{ $addFields: { roomType: { $ifNull: [ '$roomType', { $first: '$room.type' }, '' ] }, "
+                    + "cancelled: { $eq: [ '$status', 'CANCELLED' ] }, "
+                    + "night: { $range: [ 0, { $add: [ { $dateDiff: { startDate: '$fromDate', endDate: '$toDate', unit: 'day', timezone: ?0 } }, 1 ] } ] } } }",
+            "{ $unwind: '$night' }",
+            "{ $group: { _id: { hotelId: '$hotelId', roomType: '$roomType', "
+                    + "day: { $dateAdd: { startDate: '$fromDate', unit: 'day', amount: '$night', timezone: ?0 } } }, "
+                    + "nightsSold: { $sum: { $cond: [ '$cancelled', 0, 1 ] } }, "
+                    + "revenue: { $sum: { $cond: [ '$cancelled', 0, { $ifNull: [ { $arrayElemAt: [ '$nightlyPrices', '$night' ] }, '$pricePerNight' ] } ] } }, "
+                    + "cancellations: { $sum: { $cond: [ '$cancelled', 1, 0 ] } } } }",
+            "{ $project: { _id: { $concat: [ '$_id.hotelId', ':', '$_id.roomType', ':', "
+                    + "{ $dateToString: { date: '$_id.day', format: '%Y-%m-%d', timezone: ?0 } } ] }, "
+                    + "hotelId: '$_id.hotelId', roomType: '$_id.roomType', day: '$_id.day', "
+                    + "nightsSold: 1, revenue: 1, cancellations: 1 } }",
+            "{ $out: 'occupancy_cubes' }"
+    })
+    void rebuildOccupancyCubes(String timezone);
+
 }
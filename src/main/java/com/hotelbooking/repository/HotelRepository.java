@@ -3,24 +3,35 @@ package com.hotelbooking.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
 import com.hotelbooking.entity.Hotel;
 
 public interface HotelRepository extends MongoRepository<Hotel, String> {
-    List<Hotel> findByLocationContainingIgnoreCase(String location); // for partial match
     Optional<Hotel> findByHotelNumber(String hotelNumber);
+    List<Hotel> findAllBy(Pageable pageable);
+    List<Hotel> findByIdGreaterThan(String id, Pageable pageable);
 //    @Query("{}")
 //    List<Hotel> findLimitedHotels(Pageable pageable);
 
-    // Case-insensitive hotel name search
-    @Query("{ 'name': { $regex: ?0, $options: 'i' } }")
-    List<Hotel> findByNameContainingIgnoreCase(String name);
     // Existing method for limited hotels
     @Query("{}")
-    List<Hotel> findLimitedHotels(org.springframework.data.domain.Pageable pageable);
-    @Query("{ '$or': [ { 'name': { $regex: ?0, $options: 'i' } }, { 'location': { $regex: ?0, $options: 'i' } } ] }")
-    List<Hotel> searchByNameOrLocation(String keyword);
+    List<Hotel> findLimitedHotels(Pageable pageable);
+
+    // Rewrites roomIds, roomCount and the room price range of every hotel from the Rooms collection
+    @Aggregation(pipeline = {
+            "{ $project: { hotelId: { $toString: '$_id' } } }",
+            "{ $lookup: { from: 'Rooms', localField: 'hotelId', foreignField: 'hotelId', pipeline: [ { $project: { pricePerNight: 1 } } ], as: 'rooms' } }",
+            "{ $project: { roomIds: { $map: { input: '$rooms', in: { $toString: '$$this._id' } } }, roomCount: { $size: '$rooms' }, "
+                    + "minRoomPrice: { $min: '$rooms.pricePerNight' }, maxRoomPrice: { $max: '$rooms.pricePerNight' } } }",
+            "{ $merge: { into: 'hotels', on: '_id', whenNotMatched: 'discard', whenMatched: [ { $set: { "
+                    + "roomIds: '$$new.roomIds', roomCount: '$$new.roomCount', "
+                    + "minRoomPrice: { $ifNull: [ '$$new.minRoomPrice', '$$REMOVE' ] }, "
+                    + "maxRoomPrice: { $ifNull: [ '$$new.maxRoomPrice', '$$REMOVE' ] } } } ] } }"
+    })
+    void repairRoomLinks();
 
 }
@@ -0,0 +1,15 @@
+package com.hotelbooking.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.hotelbooking.entity.InvoiceBatchJob;
+import com.hotelbooking.enums.InvoiceBatchStatus;
+
+@Repository
+public interface InvoiceBatchJobRepository extends MongoRepository<InvoiceBatchJob, String> {
+    List<InvoiceBatchJob> findByStatusIn(Collection<InvoiceBatchStatus> statuses);
+}
@@ -0,0 +1,13 @@
+package com.hotelbooking.repository;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.hotelbooking.entity.PricingRule;
+
+@Repository
+public interface PricingRuleRepository extends MongoRepository<PricingRule, String> {
+    List<PricingRule> findByHotelId(String hotelId);
+}
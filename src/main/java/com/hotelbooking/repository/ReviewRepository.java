@@ -2,11 +2,25 @@ package com.hotelbooking.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import com.hotelbooking.dto.RatingCount;
 import com.hotelbooking.entity.Review;
 
 public interface ReviewRepository extends MongoRepository<Review, String>{
     List<Review> findByHotelId(String hotelId);
+    List<Review> findByHotelId(String hotelId, Pageable pageable);
+    List<Review> findByHotelIdAndIdGreaterThan(String hotelId, String id, Pageable pageable);
+    // Newest first, straight off the hotelId + _id index
+    List<Review> findTop5ByHotelIdOrderByIdDesc(String hotelId);
+
+    // Number of reviews per star rating of a hotel
+    @Aggregation(pipeline = {
+            "{ $match: { hotelId: ?0 } }",
+            "{ $group: { _id: '$rating', count: { $sum: 1 } } }"
+    })
+    List<RatingCount> ratingHistogram(String hotelId);
 
 }
@@ -0,0 +1,18 @@
+package com.hotelbooking.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.hotelbooking.entity.RoomHold;
+
+@Repository
+public interface RoomHoldRepository extends MongoRepository<RoomHold, String> {
+    Stream<RoomHold> findByExpiresAtAfter(Instant now);
+    List<RoomHold> findByRoomIdAndExpiresAtAfter(String roomId, Instant now);
+    long countByUsernameAndExpiresAtAfter(String username, Instant now);
+    List<RoomHold> findByHotelIdAndExpiresAtAfter(String hotelId, Instant now);
+}
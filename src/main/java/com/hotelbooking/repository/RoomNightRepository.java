@@ -0,0 +1,16 @@
+package com.hotelbooking.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.hotelbooking.entity.RoomNight;
+
+@Repository
+public interface RoomNightRepository extends MongoRepository<RoomNight, String> {
+    List<RoomNight> findByBookingId(String bookingId);
+    long deleteByBookingId(String bookingId);
+    long deleteByBookingIdIn(Collection<String> bookingIds);
+}
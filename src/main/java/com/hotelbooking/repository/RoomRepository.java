@@ -1,12 +1,16 @@
 package com.hotelbooking.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
+import com.hotelbooking.dto.FreeRoomCount;
 import com.hotelbooking.entity.Room;
 
 @Repository
@@ -19,8 +23,42 @@ public interface RoomRepository extends MongoRepository<Room, String> {
     List<Room> findByPricePerNightBetween(double min, double max);
     List<Room> findByHotelIdAndType(String hotelId, String type);
     boolean existsByRoomNumber(String roomNumber);
+    List<Room> findAllBy(Pageable pageable);
+    List<Room> findByIdGreaterThan(String id, Pageable pageable);
 
     @Query("{}")
     List<Room> findLimitedRooms(Pageable pageable);
+
+    // ✅ Rooms of a hotel with no active booking or live hold overlapping [fromDate, toDate], in one round trip
+    @Aggregation(pipeline = {
+            "{ $match: { hotelId: ?0 } }",
+            "{ $addFields: { roomKey: { $toString: '$_id' } } }",
+            "{ $lookup: { from: 'Bookings', localField: 'roomKey', foreignField: 'roomId', as: 'overlaps', pipeline: [ "
+                    + "{ $match: { status: { $ne: 'CANCELLED' }, fromDate: { $lte: ?2 }, toDate: { $gte: ?1 } } }, "
+                    + "{ $limit: 1 }, { $project: { _id: 1 } } ] } }",
+            "{ $lookup: { from: 'room_holds', localField: 'roomKey', foreignField: 'roomId', as: 'holds', pipeline: [ "
+                    + "{ $match: { fromDate: { $lte: ?2 }, toDate: { $gte: ?1 }, $expr: { $gt: [ '$expiresAt', '$$NOW' ] } } }, "
+                    + "{ $limit: 1 }, { $project: { _id: 1 } } ] } }",
+            "{ $match: { overlaps: { $size: 0 }, holds: { $size: 0 } } }",
+            "{ $unset: [ 'overlaps', 'holds', 'roomKey' ] }"
+    })
+    List<Room> findFreeRooms(String hotelId, LocalDate fromDate, LocalDate toDate);
+
+    // ✅ Free rooms per hotel within a price band, only hotels with at least ?5 of them
+    @Aggregation(pipeline = {
+            "{ $match: { hotelId: { $in: ?0 }, available: true, pricePerNight: { $gte: ?3, $lte: ?4 } } }",
+            "{ $addFields: { roomKey: { $toString: '$_id' } } }",
+            "{ $lookup: { from: 'Bookings', localField: 'roomKey', foreignField: 'roomId', as: 'overlaps', pipeline: [ "
+                    + "{ $match: { status: { $ne: 'CANCELLED' }, fromDate: { $lte: ?2 }, toDate: { $gte: ?1 } } }, "
+                    + "{ $limit: 1 }, { $project: { _id: 1 } } ] } }",
+            "{ $lookup: { from: 'room_holds', localField: 'roomKey', foreignField: 'roomId', as: 'holds', pipeline: [ "
+                    + "{ $match: { fromDate: { $lte: ?2 }, toDate: { $gte: ?1 }, $expr: { $gt: [ '$expiresAt', '$$NOW' ] } } }, "
+                    + "{ $limit: 1 }, { $project: { _id: 1 } } ] } }",
+            "{ $match: { overlaps: { $size: 0 }, holds: { $size: 0 } } }",
+            "{ $group: { _id: '$hotelId', freeRooms: { $sum: 1 }, lowestPrice: { $min: '$pricePerNight' } } }",
+            "{ $match: { freeRooms: { $gte: ?5 } } }"
+    })
+    List<FreeRoomCount> countFreeRoomsByHotel(Collection<String> hotelIds, LocalDate fromDate, LocalDate toDate,
+                                              double minPrice, double maxPrice, int roomsNeeded);
     
 }
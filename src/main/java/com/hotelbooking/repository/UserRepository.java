@@ -1,7 +1,9 @@
 package com.hotelbooking.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,4 +14,6 @@ public interface UserRepository extends MongoRepository<User, String> {
 	
     Optional<User> findByUsername(String username);
     Optional<User>findByEmail(String email);
+    List<User> findAllBy(Pageable pageable);
+    List<User> findByIdGreaterThan(String id, Pageable pageable);
 }
\ No newline at end of file
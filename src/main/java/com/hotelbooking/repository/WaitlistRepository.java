@@ -0,0 +1,26 @@
+package com.hotelbooking.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.hotelbooking.entity.WaitlistEntry;
+
+@Repository
+public interface WaitlistRepository extends MongoRepository<WaitlistEntry, String> {
+    List<WaitlistEntry> findByUsernameOrderByCreatedAtDesc(String username);
+    long countByUsername(String username);
+
+    // ✅ Waiting entries for this room whose stay overlaps [fromDate, toDate] (room_dates index)
+    @Query("{ roomId: ?0, fromDate: { $lte: ?2 }, toDate: { $gte: ?1 }, status: 'WAITING' }")
+    List<WaitlistEntry> findWaitingForRoom(String roomId, LocalDate fromDate, LocalDate toDate, Pageable pageable);
+
+    // ✅ Waiting entries for any room of this type in the hotel (hotel_type_dates index)
+    @Query("{ hotelId: ?0, roomType: ?1, fromDate: { $lte: ?3 }, toDate: { $gte: ?2 }, status: 'WAITING' }")
+    List<WaitlistEntry> findWaitingForRoomType(String hotelId, String roomType, LocalDate fromDate, LocalDate toDate,
+                                               Pageable pageable);
+}
@@ -0,0 +1,197 @@
+package com.hotelbooking.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.hotelbooking.dto.AvailabilityMatrix;
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.entity.RoomHold;
+import com.hotelbooking.event.RoomChangedEvent;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.RoomHoldRepository;
+import com.hotelbooking.repository.RoomRepository;
+
+/**
+ * Rooms × days availability grids for the front desk. A grid is built in one
+ * pass over the hotel's overlapping bookings and live holds and cached per
+ * hotel and window. Every reservation change reaches the availability index,
+ * which bumps the owning hotel's version here, so a cached grid is only served
+ * while nothing in that hotel changed; a short TTL covers changes made on
+ * other instances.
+ */
+@Service
+public class AvailabilityMatrixService {
+
+    public static final int MAX_DAYS = 366;
+    private static final int CACHE_ENTRIES = 500;
+    private static final long CACHE_TTL_MILLIS = 60_000;
+
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomHoldRepository holdRepository;
+
+    private final Map<String, AtomicLong> hotelVersions = new ConcurrentHashMap<>();
+    private final Map<String, String> roomHotels = new ConcurrentHashMap<>();
+
+    private final Map<String, CachedGrid> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedGrid> eldest) {
+            return size() > CACHE_ENTRIES;
+        }
+    };
+
+    // ✅ Grid of every room of a hotel for [fromDate, fromDate + days)
+    public AvailabilityMatrix matrix(String hotelId, LocalDate fromDate, int days, String encoding) {
+        if (!StringUtils.hasText(hotelId)) {
+            throw new BookingException("Hotel ID is required.");
+        }
+        if (fromDate == null) {
+            throw new BookingException("'fromDate' is required.");
+        }
+        if (days < 1 || days > MAX_DAYS) {
+            throw new BookingException("'days' must be between 1 and " + MAX_DAYS + ".");
+        }
+        boolean bitset = "bitset".equalsIgnoreCase(encoding);
+        if (!bitset && StringUtils.hasText(encoding) && !"rle".equalsIgnoreCase(encoding)) {
+            throw new BookingException("'encoding' must be rle or bitset.");
+        }
+
+        Grid grid = grid(hotelId, fromDate, days);
+        List<AvailabilityMatrix.Row> rows = new ArrayList<>(grid.rooms.size());
+        for (int i = 0; i < grid.rooms.size(); i++) {
+            Room room = grid.rooms.get(i);
+            BitSet taken = grid.taken[i];
+            rows.add(bitset
+                    ? new AvailabilityMatrix.Row(room.getId(), room.getRoomNumber(), room.getType(), null,
+                            Base64.getUrlEncoder().withoutPadding().encodeToString(taken.toByteArray()))
+                    : new AvailabilityMatrix.Row(room.getId(), room.getRoomNumber(), room.getType(),
+                            runs(taken, days), null));
+        }
+        return new AvailabilityMatrix(hotelId, fromDate, days, bitset ? "bitset" : "rle", rows);
+    }
+
+    // ✅ Called by the availability index whenever a reservation of this room changes
+    public void roomChanged(String roomId) {
+        String hotelId = roomHotels.get(roomId);
+        if (hotelId != null) {
+            invalidate(hotelId);
+        }
+    }
+
+    // ✅ Index rebuilt: nothing cached can be trusted
+    public void invalidateAll() {
+        hotelVersions.values().forEach(AtomicLong::incrementAndGet);
+    }
+
+    @EventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        String previousHotel = event.room() == null ? roomHotels.remove(event.roomId()) : roomHotels.get(event.roomId());
+        if (previousHotel != null) {
+            invalidate(previousHotel);
+        }
+        if (event.room() != null && event.room().getHotelId() != null) {
+            // new rooms too, so their first booking already reaches the hotel's cached grids
+            roomHotels.put(event.roomId(), event.room().getHotelId());
+            invalidate(event.room().getHotelId());
+        }
+    }
+
+    private Grid grid(String hotelId, LocalDate fromDate, int days) {
+        String key = hotelId + "|" + fromDate + "|" + days;
+        long version = version(hotelId).get();
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CachedGrid cached = cache.get(key);
+            if (cached != null && cached.version == version && now - cached.builtAt < CACHE_TTL_MILLIS) {
+                return cached.grid;
+            }
+        }
+
+        Grid grid = build(hotelId, fromDate, days);
+        synchronized (cache) {
+            // stored with the version read before building, so a change during the build forces a rebuild
+            cache.put(key, new CachedGrid(version, now, grid));
+        }
+        return grid;
+    }
+
+    // One pass over the overlapping bookings and holds of the hotel
+    private Grid build(String hotelId, LocalDate fromDate, int days) {
+        LocalDate toDate = fromDate.plusDays(days - 1L);
+        List<Room> rooms = new ArrayList<>(roomRepository.findByHotelId(hotelId));
+        rooms.sort(Comparator.comparing(Room::getRoomNumber, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        Map<String, Integer> rowOf = new HashMap<>();
+        BitSet[] taken = new BitSet[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            rowOf.put(rooms.get(i).getId(), i);
+            taken[i] = new BitSet(days);
+            roomHotels.put(rooms.get(i).getId(), hotelId);
+        }
+
+        for (Booking booking : bookingRepository.findByHotelIdAndDateRange(hotelId, fromDate, toDate)) {
+            mark(taken, rowOf.get(booking.getRoomId()), fromDate, days, booking.getFromDate(), booking.getToDate());
+        }
+        for (RoomHold hold : holdRepository.findByHotelIdAndExpiresAtAfter(hotelId, Instant.now())) {
+            mark(taken, rowOf.get(hold.getRoomId()), fromDate, days, hold.getFromDate(), hold.getToDate());
+        }
+        return new Grid(rooms, taken);
+    }
+
+    static void mark(BitSet[] taken, Integer row, LocalDate windowStart, int days, LocalDate from, LocalDate to) {
+        if (row == null || from == null || to == null) return;
+        long first = Math.max(from.toEpochDay() - windowStart.toEpochDay(), 0);
+        long last = Math.min(to.toEpochDay() - windowStart.toEpochDay(), days - 1L);
+        if (last < first) return;
+        taken[row].set((int) first, (int) last + 1);
+    }
+
+    // Alternating free / taken run lengths, starting with free (possibly 0)
+    static int[] runs(BitSet taken, int days) {
+        List<Integer> runs = new ArrayList<>();
+        int position = 0;
+        boolean free = true;
+        while (position < days) {
+            int next = free ? taken.nextSetBit(position) : taken.nextClearBit(position);
+            int end = next < 0 || next > days ? days : next;
+            runs.add(end - position);
+            position = end;
+            free = !free;
+        }
+        return runs.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void invalidate(String hotelId) {
+        version(hotelId).incrementAndGet();
+    }
+
+    private AtomicLong version(String hotelId) {
+        return hotelVersions.computeIfAbsent(hotelId, id -> new AtomicLong());
+    }
+
+    private record Grid(List<Room> rooms, BitSet[] taken) {
+    }
+
+    private record CachedGrid(long version, long builtAt, Grid grid) {
+    }
+}
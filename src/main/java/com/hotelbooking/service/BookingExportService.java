@@ -0,0 +1,117 @@
+package com.hotelbooking.service;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hotelbooking.entity.Booking;
+
+/**
+ * Streams bookings from a Mongo cursor straight to the response. Only one
+ * cursor batch is held at a time, and a slow client blocks the writer, which
+ * in turn stops the cursor from fetching more.
+ */
+@Service
+public class BookingExportService {
+
+    private static final int CURSOR_BATCH = 500;
+    private static final String CSV_HEADER =
+            "id,bookingNumber,userId,username,hotelId,hotelName,roomId,roomNumber,fromDate,toDate,status,pricePerNight";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // ✅ NDJSON: one booking document per line
+    public StreamingResponseBody exportNdjson(String hotelId, LocalDate fromDate, LocalDate toDate) {
+        Query query = exportQuery(hotelId, fromDate, toDate);
+        ObjectWriter writer = objectMapper.writerFor(Booking.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        return out -> {
+            try (Stream<Booking> bookings = mongoTemplate.stream(query, Booking.class);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+                    bookingService.updateStatus(booking);
+                    writer.writeValue(generator, booking);
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+    }
+
+    // ✅ CSV with a header row
+    public StreamingResponseBody exportCsv(String hotelId, LocalDate fromDate, LocalDate toDate) {
+        Query query = exportQuery(hotelId, fromDate, toDate);
+
+        return out -> {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            try (Stream<Booking> bookings = mongoTemplate.stream(query, Booking.class)) {
+                csv.write(CSV_HEADER);
+                csv.write('\n');
+                for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+                    bookingService.updateStatus(booking);
+                    csv.write(String.join(",",
+                            csvField(booking.getId()),
+                            csvField(booking.getBookingNumber()),
+                            csvField(booking.getUserId()),
+                            csvField(booking.getUsername()),
+                            csvField(booking.getHotelId()),
+                            csvField(booking.getHotelName()),
+                            csvField(booking.getRoomId()),
+                            csvField(booking.getRoomNumber()),
+                            csvField(booking.getFromDate()),
+                            csvField(booking.getToDate()),
+                            csvField(booking.getStatus()),
+                            String.valueOf(booking.getPricePerNight())));
+                    csv.write('\n');
+                }
+            }
+            csv.flush();
+        };
+    }
+
+    private Query exportQuery(String hotelId, LocalDate fromDate, LocalDate toDate) {
+        Criteria criteria = new Criteria();
+        if (StringUtils.hasText(hotelId)) {
+            criteria.and("hotelId").is(hotelId);
+        }
+        // stays overlapping [fromDate, toDate]
+        if (toDate != null) {
+            criteria.and("fromDate").lte(toDate);
+        }
+        if (fromDate != null) {
+            criteria.and("toDate").gte(fromDate);
+        }
+        return new Query(criteria).cursorBatchSize(CURSOR_BATCH);
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) return "";
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,72 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.hotelbooking.entity.Counter;
+
+/**
+ * Booking numbers like "BK-7KD2QX". Each node reserves a block of sequence
+ * values with one atomic $inc on the counters collection and hands them out
+ * locally, so numbers are unique across nodes and need no read-before-write.
+ */
+@Component
+public class BookingNumberGenerator {
+
+    private static final String COUNTER_ID = "bookingNumber";
+    private static final int BLOCK_SIZE = 100;
+
+    // Crockford base32: no I, L, O or U, so codes are easy to read out
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int SHORT_CODE_CHARS = 6;
+    private static final long SHORT_CODE_MASK = (1L << (5 * SHORT_CODE_CHARS)) - 1;
+    // Odd multiplier + xor is a bijection on 30 bits, so consecutive numbers don't look consecutive
+    private static final long SCRAMBLE_MULTIPLIER = 0x1F3A5C7DL;
+    private static final long SCRAMBLE_XOR = 0x15A3C96BL & SHORT_CODE_MASK;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private long next;
+    private long limit;
+
+    public String next() {
+        return "BK-" + encode(nextSequence());
+    }
+
+    private synchronized long nextSequence() {
+        if (next >= limit) {
+            Counter counter = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(COUNTER_ID)),
+                    new Update().inc("seq", BLOCK_SIZE),
+                    FindAndModifyOptions.options().returnNew(true).upsert(true),
+                    Counter.class);
+            limit = counter.getSeq();
+            next = limit - BLOCK_SIZE;
+        }
+        return next++;
+    }
+
+    static String encode(long sequence) {
+        // First 2^30 numbers: exactly 6 scrambled characters; beyond that the plain value, 7+ characters
+        if (sequence <= SHORT_CODE_MASK) {
+            long scrambled = ((sequence * SCRAMBLE_MULTIPLIER) & SHORT_CODE_MASK) ^ SCRAMBLE_XOR;
+            return base32(scrambled, SHORT_CODE_CHARS);
+        }
+        return base32(sequence, SHORT_CODE_CHARS + 1);
+    }
+
+    private static String base32(long value, int minChars) {
+        StringBuilder code = new StringBuilder();
+        while (value > 0 || code.length() < minChars) {
+            code.append(ALPHABET[(int) (value & 31)]);
+            value >>>= 5;
+        }
+        return code.reverse().toString();
+    }
+}
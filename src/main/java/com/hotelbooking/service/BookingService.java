@@ -1,37 +1,55 @@
 package com.hotelbooking.service;
 
 import com.hotelbooking.dto.BookingRequest;
+import com.hotelbooking.dto.CursorPage;
+import com.hotelbooking.dto.GroupBookingRequest;
+import com.hotelbooking.dto.PagedResponse;
+import com.hotelbooking.dto.PriceQuote;
 import com.hotelbooking.entity.Booking;
 import com.hotelbooking.entity.Hotel;
 import com.hotelbooking.entity.Room;
+import com.hotelbooking.entity.RoomHold;
 import com.hotelbooking.entity.User;
 import com.hotelbooking.enums.BookingStatus;
+import com.hotelbooking.event.RoomNightsReleasedEvent;
 import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceConflictException;
+import com.hotelbooking.exception.ResourceNotFoundException;
 import com.hotelbooking.repository.BookingRepository;
 import com.hotelbooking.repository.HotelRepository;
 import com.hotelbooking.repository.RoomRepository;
 import com.hotelbooking.repository.UserRepository;
-import com.itextpdf.text.Document;
-import com.itextpdf.text.Font;
-import com.itextpdf.text.FontFactory;
-import com.itextpdf.text.Paragraph;
-import com.itextpdf.text.pdf.PdfWriter;
 
-import org.springframework.http.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import java.util.UUID;
 
 @Service
 public class BookingService {
 
+    private static final int SEARCH_COUNT_LIMIT = 10_000;
+
     @Autowired
     private BookingRepository bookingRepository;
     @Autowired
@@ -40,6 +58,26 @@ public class BookingService {
     private HotelRepository hotelRepository;
     @Autowired
     private RoomRepository roomRepository;
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private RoomNightLedger roomNightLedger;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private BookingNumberGenerator bookingNumberGenerator;
+    @Autowired
+    private InvoiceService invoiceService;
+    @Autowired
+    private ConcurrentLookups concurrentLookups;
+    @Autowired
+    private OperationTimings operationTimings;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private OccupancyCubeService occupancyCubes;
+    @Autowired
+    private PriceCalendarService priceCalendar;
     
     // ✅ Main Method: Get bookings by user and update statuses
     public List<Booking> getBookingsByUser(String userId) {
@@ -52,9 +90,10 @@ public class BookingService {
         return bookings;
     }
 
-    // ✅ Create booking with validations and default PENDING status
-    public Booking createBooking(BookingRequest request) {
-        LocalDate today = LocalDate.now();
+    // ✅ Create booking with validations and default PENDING status.
+    // Each entity is loaded once; the user and room(+hotel) lookups run in parallel.
+    public Booking createBooking(BookingRequest request, String username) {
+        long started = System.nanoTime();
 
         // 🛡️ Validate input
         if (request == null) {
@@ -65,73 +104,189 @@ public class BookingService {
             throw new BookingException("Room ID is required.");
         }
 
-        if (!StringUtils.hasText(request.getUserId())) {
-            throw new BookingException("User ID is required.");
+        if (!StringUtils.hasText(username)) {
+            throw new BookingException("User is required.");
         }
 
-        if (request.getFromDate() == null || request.getToDate() == null) {
-            throw new BookingException("Both 'fromDate' and 'toDate' must be provided.");
+        validateStay(request.getFromDate(), request.getToDate());
+
+        // ✅ Fetch User ‖ Room → Hotel
+        CompletableFuture<User> userLookup = concurrentLookups.supply(() -> userRepository.findByUsername(username)
+                .orElseThrow(() -> new BookingException("User not found")));
+        CompletableFuture<Room> roomLookup = concurrentLookups.supply(() -> {
+            Room room = roomRepository.findById(request.getRoomId())
+                    .orElseThrow(() -> new BookingException("Room not found"));
+            if (!room.isAvailable()) {
+                throw new BookingException("Room is not available");
+            }
+            // ✅ Fast overlap pre-check (in-memory index, a hit is confirmed against the ledger)
+            if (!availabilityIndex.isBookable(room.getId(), request.getFromDate(), request.getToDate())) {
+                throw new BookingException("Room is already booked for the selected date range.");
+            }
+            return room;
+        });
+        CompletableFuture<Hotel> hotelLookup = roomLookup.thenApplyAsync(room -> hotelRepository.findById(room.getHotelId())
+                .orElseThrow(() -> new BookingException("Hotel not found")), concurrentLookups::execute);
+
+        Room room = ConcurrentLookups.join(roomLookup);
+        Hotel hotel = ConcurrentLookups.join(hotelLookup);
+        User user = ConcurrentLookups.join(userLookup);
+        long looked = System.nanoTime();
+        operationTimings.record("booking.create.lookups", looked - started);
+
+        // ✅ Create Booking (block-allocated booking number, no lookup needed)
+        Booking booking = newBooking(bookingNumberGenerator.next(), user, room, hotel, request.getFromDate(), request.getToDate());
+
+        // ✅ Claim the room nights first; the ledger's unique key rejects concurrent double bookings
+        roomNightLedger.claim(booking.getId(), room.getId(), booking.getFromDate(), booking.getToDate());
+        long claimed = System.nanoTime();
+        operationTimings.record("booking.create.claim", claimed - looked);
+
+        Booking saved;
+        try {
+            saved = bookingRepository.insert(booking);
+        } catch (RuntimeException e) {
+            roomNightLedger.release(booking.getId());
+            throw e;
         }
+        availabilityIndex.index(saved);
+        occupancyCubes.booked(saved);
 
-        if (request.getFromDate().isBefore(today)) {
-            throw new BookingException("Cannot book past dates. Booking must start from today or a future date.");
+        long finished = System.nanoTime();
+        operationTimings.record("booking.create.insert", finished - claimed);
+        operationTimings.record("booking.create.total", finished - started);
+        return saved;
+    }
+
+
+    // ✅ Book several rooms for the same stay: batched lookups, one ledger write, one insertMany
+    public List<Booking> createGroupBooking(GroupBookingRequest request, User user) {
+        if (request == null || request.getRoomIds() == null || request.getRoomIds().isEmpty()) {
+            throw new BookingException("At least one room is required.");
         }
+        validateStay(request.getFromDate(), request.getToDate());
 
-        if (request.getFromDate().isAfter(request.getToDate())) {
-            throw new BookingException("'fromDate' must be before or equal to 'toDate'.");
+        Set<String> roomIds = new LinkedHashSet<>(request.getRoomIds());
+        if (roomIds.size() != request.getRoomIds().size()) {
+            throw new BookingException("The same room is listed more than once.");
         }
 
-        // ✅ Fetch Room
-        Room room = roomRepository.findById(request.getRoomId())
-                .orElseThrow(() -> new BookingException("Room not found"));
+        // ✅ All rooms in one $in lookup
+        Map<String, Room> rooms = new HashMap<>();
+        roomRepository.findAllById(roomIds).forEach(room -> rooms.put(room.getId(), room));
+        for (String roomId : roomIds) {
+            Room room = rooms.get(roomId);
+            if (room == null) {
+                throw new BookingException("Room not found: " + roomId);
+            }
+            if (!room.isAvailable()) {
+                throw new BookingException("Room is not available: " + room.getRoomNumber());
+            }
+            if (!availabilityIndex.isBookable(roomId, request.getFromDate(), request.getToDate())) {
+                throw new BookingException("Room " + room.getRoomNumber() + " is already booked for the selected date range.");
+            }
+        }
+
+        // ✅ All hotels in one $in lookup
+        Set<String> hotelIds = rooms.values().stream().map(Room::getHotelId).collect(Collectors.toSet());
+        Map<String, Hotel> hotels = new HashMap<>();
+        hotelRepository.findAllById(hotelIds).forEach(hotel -> hotels.put(hotel.getId(), hotel));
+
+        String groupId = UUID.randomUUID().toString();
+        List<Booking> bookings = new ArrayList<>();
+        for (String roomId : roomIds) {
+            Room room = rooms.get(roomId);
+            Hotel hotel = hotels.get(room.getHotelId());
+            if (hotel == null) {
+                throw new BookingException("Hotel not found for room: " + room.getRoomNumber());
+            }
+            Booking booking = newBooking(bookingNumberGenerator.next(), user, room, hotel, request.getFromDate(), request.getToDate());
+            booking.setGroupId(groupId);
+            bookings.add(booking);
+        }
+
+        // ✅ Every night of every room in one ledger insert; any clash fails the whole group
+        roomNightLedger.claim(bookings);
 
-        if (!room.isAvailable()) {
-            throw new BookingException("Room is not available");
+        List<String> bookingIds = bookings.stream().map(Booking::getId).toList();
+        List<Booking> saved;
+        try {
+            saved = bookingRepository.insert(bookings);
+        } catch (RuntimeException e) {
+            bookingRepository.deleteAllById(bookingIds);
+            roomNightLedger.release(bookingIds);
+            throw e;
         }
+        saved.forEach(availabilityIndex::index);
+        occupancyCubes.booked(saved);
+        return saved;
+    }
 
-        // ✅ Fetch Hotel
+    // ✅ Book the nights of a live hold: they change owner in the ledger instead of being claimed again
+    Booking bookHold(RoomHold hold) {
+        CompletableFuture<User> userLookup = concurrentLookups.supply(() -> userRepository.findByUsername(hold.getUsername())
+                .orElseThrow(() -> new BookingException("User not found")));
+        Room room = roomRepository.findById(hold.getRoomId())
+                .orElseThrow(() -> new BookingException("Room not found"));
         Hotel hotel = hotelRepository.findById(room.getHotelId())
                 .orElseThrow(() -> new BookingException("Hotel not found"));
+        User user = ConcurrentLookups.join(userLookup);
 
-        // ✅ Check booking overlap
-        List<Booking> overlappingBookings = bookingRepository
-                .findByRoomIdAndFromDateLessThanEqualAndToDateGreaterThanEqual(
-                        room.getId(), request.getToDate(), request.getFromDate());
+        Booking booking = newBooking(bookingNumberGenerator.next(), user, room, hotel, hold.getFromDate(), hold.getToDate());
+        long nights = hold.getToDate().toEpochDay() - hold.getFromDate().toEpochDay() + 1;
+        if (!roomNightLedger.transfer(hold.getId(), booking.getId(), nights)) {
+            throw new BookingException("Hold has expired.");
+        }
 
-        if (!overlappingBookings.isEmpty()) {
-            throw new BookingException("Room is already booked for the selected date range.");
+        Booking saved;
+        try {
+            saved = bookingRepository.insert(booking);
+        } catch (RuntimeException e) {
+            // The hold stays live for another attempt, so it must keep protecting its nights
+            roomNightLedger.returnToHold(booking.getId(), hold.getId(), hold.getExpiresAt());
+            throw e;
         }
+        availabilityIndex.index(saved);
+        occupancyCubes.booked(saved);
+        return saved;
+    }
 
-        // ✅ Generate unique booking number
-        String bookingNumber = "BK-" + UUID.randomUUID().toString().substring(0, 3).toUpperCase();
+    void validateStay(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null || toDate == null) {
+            throw new BookingException("Both 'fromDate' and 'toDate' must be provided.");
+        }
 
-        // Optional: Ensure uniqueness (very rare case)
-        if (bookingRepository.findByBookingNumber(bookingNumber).isPresent()) {
-            throw new BookingException("Duplicate booking number generated. Please try again.");
+        if (fromDate.isBefore(LocalDate.now())) {
+            throw new BookingException("Cannot book past dates. Booking must start from today or a future date.");
         }
 
-        // ✅ Fetch User
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new BookingException("User not found"));
+        if (fromDate.isAfter(toDate)) {
+            throw new BookingException("'fromDate' must be before or equal to 'toDate'.");
+        }
+    }
 
-        // ✅ Create and save Booking
+    private Booking newBooking(String bookingNumber, User user, Room room, Hotel hotel,
+                               LocalDate fromDate, LocalDate toDate) {
         Booking booking = new Booking();
         booking.setId(UUID.randomUUID().toString());
         booking.setBookingNumber(bookingNumber);
         booking.setUserId(user.getId());
         booking.setUsername(user.getUsername());
         booking.setRoomId(room.getId());
+        booking.setHotelId(room.getHotelId());
         booking.setRoomNumber(room.getRoomNumber());
+        booking.setRoomType(room.getType());
         booking.setHotelName(hotel.getName());
-        booking.setFromDate(request.getFromDate());
-        booking.setToDate(request.getToDate());
-        booking.setPricePerNight(room.getPricePerNight());
+        booking.setFromDate(fromDate);
+        booking.setToDate(toDate);
+        // ✅ Per-night prices from the in-memory price calendar (no extra reads)
+        PriceQuote quote = priceCalendar.quote(room, fromDate, toDate);
+        booking.setNightlyPrices(quote.getNightlyPrices());
+        booking.setPricePerNight(quote.getAveragePerNight());
         booking.setStatus(BookingStatus.PENDING); // Always start with PENDING
-
-        return bookingRepository.save(booking);
+        return booking;
     }
 
-
     // ✅ Get all bookings, auto-update status
     public List<Booking> getAllBookings() {
         List<Booking> bookings = bookingRepository.findAll();
@@ -139,6 +294,17 @@ public class BookingService {
         return bookings;
     }
 
+    // ✅ One keyset page of all bookings, ordered by id
+    public CursorPage<Booking> getBookingsPage(String cursor, int size) {
+        String after = CursorPage.decode(cursor);
+        List<Booking> bookings = after == null
+                ? bookingRepository.findAllBy(CursorPage.pageable(size))
+                : bookingRepository.findByIdGreaterThan(after, CursorPage.pageable(size));
+        CursorPage<Booking> page = CursorPage.of(bookings, size, Booking::getId);
+        updateStatuses(page.getItems());
+        return page;
+    }
+
     // ✅ Get one booking and auto-update status
     public Booking getBookingById(String id) {
         Booking booking = bookingRepository.findById(id)
@@ -154,20 +320,78 @@ public class BookingService {
             throw new BookingException("Booking ID is required.");
         }
 
-        if (!bookingRepository.existsById(id)) {
-            throw new BookingException("Booking not found with ID: " + id);
-        }
+        Booking booking = bookingRepository.findById(id)
+                .orElseThrow(() -> new BookingException("Booking not found with ID: " + id));
 
         bookingRepository.deleteById(id);
+        roomNightLedger.release(id);
+        availabilityIndex.release(id);
+        occupancyCubes.deleted(booking);
+        if (booking.getStatus() != BookingStatus.CANCELLED) {
+            publishReleased(booking);
+        }
+    }
+
+    // ✅ Bookings with a given stored status (served by the status indexes)
+    public List<Booking> getBookingsByStatus(BookingStatus status) {
+        List<Booking> bookings = bookingRepository.findByStatus(status);
+        updateStatuses(bookings);
+        return bookings;
+    }
+
+    // ✅ Admin search: every filter runs inside MongoDB, newest stay first
+    public PagedResponse<Booking> searchBookings(BookingStatus status, String hotelId, String userId,
+                                                 LocalDate fromDate, LocalDate toDate, String bookingNumber,
+                                                 int page, int size) {
+        Criteria criteria = new Criteria();
+        boolean filtered = false;
+        if (StringUtils.hasText(bookingNumber)) {
+            criteria.and("bookingNumber").is(bookingNumber.trim().toUpperCase());
+            filtered = true;
+        }
+        if (status != null) {
+            criteria.and("status").is(status);
+            filtered = true;
+        }
+        if (StringUtils.hasText(hotelId)) {
+            criteria.and("hotelId").is(hotelId);
+            filtered = true;
+        }
+        if (StringUtils.hasText(userId)) {
+            criteria.and("userId").is(userId);
+            filtered = true;
+        }
+        // stays overlapping [fromDate, toDate]
+        if (toDate != null) {
+            criteria.and("fromDate").lte(toDate);
+            filtered = true;
+        }
+        if (fromDate != null) {
+            criteria.and("toDate").gte(fromDate);
+            filtered = true;
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.desc("fromDate"), Sort.Order.desc("_id")))
+                .skip((long) page * size)
+                .limit(size);
+        List<Booking> bookings = mongoTemplate.find(query, Booking.class);
+        updateStatuses(bookings);
+
+        // Counting stops at SEARCH_COUNT_LIMIT so a broad filter never walks the whole collection
+        long total = filtered
+                ? mongoTemplate.count(new Query(criteria).limit(SEARCH_COUNT_LIMIT), Booking.class)
+                : mongoTemplate.estimatedCount(Booking.class);
+        return new PagedResponse<>(bookings, page, size, total);
     }
 
-    // ✅ Auto update multiple bookings
+    // ✅ Derive current status for display; the scheduled job persists transitions in bulk
     private void updateStatuses(List<Booking> bookings) {
         bookings.forEach(this::updateStatus);
     }
 
-    // ✅ Auto update status of a single booking
-    private void updateStatus(Booking booking) {
+    // ✅ Derive status of a single booking from its dates (no write)
+    void updateStatus(Booking booking) {
         if (booking.getStatus() == BookingStatus.CANCELLED) return;
 
         LocalDate today = LocalDate.now();
@@ -181,56 +405,82 @@ public class BookingService {
             newStatus = BookingStatus.COMPLETED;
         }
 
-        if (!booking.getStatus().equals(newStatus)) {
-            booking.setStatus(newStatus);
-            bookingRepository.save(booking);
-        }
-    }
-    
-    
- // ✅ Save or update booking
-    public Booking save(Booking booking) {
-        return bookingRepository.save(booking);
+        booking.setStatus(newStatus);
     }
-    // 🔽 PDF Invoice Generator Method (added in BookingService directly)
-    public ResponseEntity<byte[]> generateInvoicePdf(Booking booking) {
-        try {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            Document document = new Document();
-            PdfWriter.getInstance(document, out);
-            document.open();
 
-            Font font = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
-            Font small = FontFactory.getFont(FontFactory.HELVETICA, 12);
-
-            document.add(new Paragraph("Hotel Booking Invoice", font));
-            document.add(new Paragraph("-----------------------------------------------------", small));
-            document.add(new Paragraph("Booking Number: " + booking.getBookingNumber(), small));
-            document.add(new Paragraph("User: " + booking.getUsername(), small));
-            document.add(new Paragraph("Hotel: " + booking.getHotelName(), small));
-            document.add(new Paragraph("Room: " + booking.getRoomNumber(), small));
-            document.add(new Paragraph("From: " + booking.getFromDate(), small));
-            document.add(new Paragraph("To: " + booking.getToDate(), small));
-            document.add(new Paragraph("Status: " + booking.getStatus(), small));
-            document.add(new Paragraph("Price per night: ₹" + booking.getPricePerNight(), small));
+    // ✅ Persist PENDING → RUNNING → COMPLETED for all bookings in two bulk updates (idempotent)
+    public Map<String, Long> advanceStatuses() {
+        LocalDate today = LocalDate.now();
 
-            long nights = booking.getToDate().toEpochDay() - booking.getFromDate().toEpochDay() + 1;
-            double total = nights * booking.getPricePerNight();
+        long completed = mongoTemplate.updateMulti(
+                new Query(Criteria.where("status").in(BookingStatus.PENDING, BookingStatus.RUNNING)
+                        .and("toDate").lt(today)),
+                new Update().set("status", BookingStatus.COMPLETED).inc("version", 1),
+                Booking.class).getModifiedCount();
+
+        long running = mongoTemplate.updateMulti(
+                new Query(Criteria.where("status").is(BookingStatus.PENDING)
+                        .and("fromDate").lte(today)
+                        .and("toDate").gte(today)),
+                new Update().set("status", BookingStatus.RUNNING).inc("version", 1),
+                Booking.class).getModifiedCount();
+
+        Map<String, Long> moved = new LinkedHashMap<>();
+        moved.put("running", running);
+        moved.put("completed", completed);
+        return moved;
+    }
+    
+    
+    // ✅ Cancel as one conditional $set: only if not cancelled yet and unchanged since it was read
+    public Booking cancelBooking(Booking booking) {
+        Query query = new Query(Criteria.where("_id").is(booking.getId())
+                .and("status").ne(BookingStatus.CANCELLED)
+                .and("version").is(booking.getVersion()));
+        Update update = new Update()
+                .set("status", BookingStatus.CANCELLED)
+                .inc("version", 1);
+        Booking cancelled = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Booking.class);
+
+        if (cancelled == null) {
+            Booking current = bookingRepository.findById(booking.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + booking.getId()));
+            if (current.getStatus() == BookingStatus.CANCELLED) {
+                throw new ResourceConflictException("Booking is already cancelled.");
+            }
+            throw new ResourceConflictException("Booking was modified concurrently. Please reload and try again.");
+        }
 
-            document.add(new Paragraph("Nights: " + nights, small));
-            document.add(new Paragraph("Total: ₹" + total, small));
+        roomNightLedger.release(cancelled.getId());
+        availabilityIndex.index(cancelled);
+        occupancyCubes.cancelled(cancelled);
+        publishReleased(cancelled);
+        return cancelled;
+    }
 
-            document.add(new Paragraph("\nThank you for booking with us.", small));
-            document.close();
+    // ✅ Let the waitlist know these nights are free again
+    private void publishReleased(Booking booking) {
+        if (booking.getRoomId() == null || booking.getFromDate() == null || booking.getToDate() == null) return;
+        eventPublisher.publishEvent(new RoomNightsReleasedEvent(booking.getRoomId(), booking.getFromDate(), booking.getToDate()));
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "invoice_" + booking.getBookingNumber() + ".pdf");
+    // ✅ Give bookings stored before versioning a version, so loading and saving them keeps working
+    public long backfillVersions() {
+        return mongoTemplate.updateMulti(
+                new Query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                Booking.class).getModifiedCount();
+    }
 
-            return ResponseEntity.ok().headers(headers).body(out.toByteArray());
+    // ✅ Fill hotelId on bookings created before it was stored, returns how many are still missing it
+    public long backfillHotelIds() {
+        bookingRepository.backfillHotelIds();
+        return bookingRepository.countByHotelIdIsNull();
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    // 🔽 PDF Invoice: 304 for an unchanged copy, otherwise cached or freshly streamed PDF
+    public ResponseEntity<StreamingResponseBody> generateInvoicePdf(Booking booking, String ifNoneMatch) {
+        return invoiceService.invoiceResponse(booking, ifNoneMatch);
     }
 }
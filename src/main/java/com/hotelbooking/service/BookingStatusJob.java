@@ -0,0 +1,25 @@
+package com.hotelbooking.service;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Moves booking statuses forward in bulk; safe to run any number of times
+@Component
+public class BookingStatusJob {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Scheduled(cron = "${booking.status.cron:0 5 * * * *}")
+    public void advanceStatuses() {
+        try {
+            Map<String, Long> moved = bookingService.advanceStatuses();
+            System.out.println("✅ Booking status job: " + moved);
+        } catch (Exception e) {
+            System.out.println("❌ Booking status job failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+// Bookings written before @Version existed have no version field; Spring Data would treat them as new on save
+@Component
+public class BookingVersionBackfill implements CommandLineRunner {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Override
+    public void run(String... args) {
+        long updated = bookingService.backfillVersions();
+        if (updated > 0) {
+            System.out.println("✅ Versioned " + updated + " existing bookings.");
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.hotelbooking.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooking.dto.HotelRequest;
+import com.hotelbooking.dto.ImportReport;
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.event.RoomChangedEvent;
+
+/**
+ * Streaming catalog import of hotels or rooms from NDJSON or CSV. Rows are
+ * read one line at a time and written in chunks: per chunk one $in lookup
+ * finds hotel / room numbers that already exist (and, for rooms, the hotels
+ * they reference), then the rest goes out as one unordered bulk insert, so a
+ * bad row never stops the others. Memory stays bounded by the chunk size and
+ * every rejected row is reported with its line number.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final int CHUNK = 1000;
+    private static final String DEFAULT_ROOM_IMAGE = "default-room.jpg";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private HotelService hotelService;
+    @Autowired
+    private HotelRoomLinks hotelRoomLinks;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // ✅ type is hotels or rooms, format ndjson or csv (a header row names the columns)
+    public ImportReport importCatalog(String type, String format, InputStream body) throws IOException {
+        BiConsumer<List<Row>, ImportReport> flush = switch (type == null ? "" : type.toLowerCase()) {
+            case "hotels" -> this::insertHotels;
+            case "rooms" -> this::insertRooms;
+            default -> throw new IllegalArgumentException("Import type must be hotels or rooms.");
+        };
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Import format must be ndjson or csv.");
+        }
+
+        long started = System.currentTimeMillis();
+        ImportReport report = new ImportReport(type.toLowerCase());
+        List<Row> chunk = new ArrayList<>(CHUNK);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            long line = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) continue;
+                if (csv && header == null) {
+                    header = parseCsvLine(stripBom(text));
+                    continue;
+                }
+                report.setRows(report.getRows() + 1);
+                try {
+                    chunk.add(new Row(line, csv ? csvFields(header, text) : jsonFields(stripBom(text))));
+                } catch (IllegalArgumentException | IOException e) {
+                    report.failed(line, null, "Unreadable row: " + e.getMessage());
+                }
+                if (chunk.size() == CHUNK) {
+                    flush.accept(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush.accept(chunk, report);
+        }
+        report.setMillis(System.currentTimeMillis() - started);
+        return report;
+    }
+
+    // ✅ JSON array of hotels (the add-multiple endpoint) through the same chunked path
+    public ImportReport importHotels(List<HotelRequest> requests) {
+        long started = System.currentTimeMillis();
+        ImportReport report = new ImportReport("hotels");
+        List<Row> chunk = new ArrayList<>(CHUNK);
+        long line = 0;
+        for (HotelRequest request : requests) {
+            line++;
+            report.setRows(report.getRows() + 1);
+            chunk.add(new Row(line, hotelFields(request)));
+            if (chunk.size() == CHUNK) {
+                insertHotels(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertHotels(chunk, report);
+        }
+        report.setMillis(System.currentTimeMillis() - started);
+        return report;
+    }
+
+    private void insertHotels(List<Row> rows, ImportReport report) {
+        Map<String, Parsed<Hotel>> byNumber = new LinkedHashMap<>();
+        for (Row row : rows) {
+            String number = row.get("hotelNumber");
+            try {
+                Hotel hotel = toHotel(row);
+                if (byNumber.putIfAbsent(hotel.getHotelNumber(), new Parsed<>(row.line(), hotel)) != null) {
+                    report.duplicate(row.line(), number, "Hotel number repeated in this file.");
+                }
+            } catch (IllegalArgumentException e) {
+                report.failed(row.line(), number, e.getMessage());
+            }
+        }
+        if (byNumber.isEmpty()) return;
+
+        Query existing = new Query(Criteria.where("hotelNumber").in(byNumber.keySet()));
+        existing.fields().include("hotelNumber");
+        for (Hotel hotel : mongoTemplate.find(existing, Hotel.class)) {
+            Parsed<Hotel> taken = byNumber.remove(hotel.getHotelNumber());
+            if (taken != null) {
+                report.duplicate(taken.line(), hotel.getHotelNumber(), "Hotel number already exists.");
+            }
+        }
+
+        List<Parsed<Hotel>> inserted = insert(new ArrayList<>(byNumber.values()), Hotel.class, report,
+                Hotel::getHotelNumber);
+        inserted.forEach(parsed -> hotelService.changed(parsed.value()));
+    }
+
+    private void insertRooms(List<Row> rows, ImportReport report) {
+        // Rooms may reference their hotel by id or by number; both are resolved with one lookup
+        Set<String> hotelIds = new HashSet<>();
+        Set<String> hotelNumbers = new HashSet<>();
+        for (Row row : rows) {
+            String hotelId = row.get("hotelId");
+            if (StringUtils.hasText(hotelId) && ObjectId.isValid(hotelId)) {
+                hotelIds.add(hotelId);
+            } else if (StringUtils.hasText(row.get("hotelNumber"))) {
+                hotelNumbers.add(row.get("hotelNumber"));
+            }
+        }
+        Query hotelsQuery = new Query(new Criteria().orOperator(
+                Criteria.where("_id").in(hotelIds), Criteria.where("hotelNumber").in(hotelNumbers)));
+        hotelsQuery.fields().include("hotelNumber");
+        Set<String> knownHotelIds = new HashSet<>();
+        Map<String, String> hotelIdByNumber = new HashMap<>();
+        for (Hotel hotel : mongoTemplate.find(hotelsQuery, Hotel.class)) {
+            knownHotelIds.add(hotel.getId());
+            hotelIdByNumber.put(hotel.getHotelNumber(), hotel.getId());
+        }
+
+        Map<String, Parsed<Room>> byNumber = new LinkedHashMap<>();
+        for (Row row : rows) {
+            String number = row.get("roomNumber");
+            try {
+                Room room = toRoom(row, knownHotelIds, hotelIdByNumber);
+                if (byNumber.putIfAbsent(room.getRoomNumber(), new Parsed<>(row.line(), room)) != null) {
+                    report.duplicate(row.line(), number, "Room number repeated in this file.");
+                }
+            } catch (IllegalArgumentException e) {
+                report.failed(row.line(), number, e.getMessage());
+            }
+        }
+        if (byNumber.isEmpty()) return;
+
+        Query existing = new Query(Criteria.where("roomNumber").in(byNumber.keySet()));
+        existing.fields().include("roomNumber");
+        for (Room room : mongoTemplate.find(existing, Room.class)) {
+            Parsed<Room> taken = byNumber.remove(room.getRoomNumber());
+            if (taken != null) {
+                report.duplicate(taken.line(), room.getRoomNumber(), "Room number already exists.");
+            }
+        }
+
+        List<Parsed<Room>> inserted = insert(new ArrayList<>(byNumber.values()), Room.class, report,
+                Room::getRoomNumber);
+        List<Room> rooms = inserted.stream().map(Parsed::value).toList();
+        rooms.forEach(room -> eventPublisher.publishEvent(new RoomChangedEvent(room.getId(), room)));
+        hotelRoomLinks.linked(rooms);
+    }
+
+    // One unordered bulk insert; rows the server rejects (e.g. a number taken meanwhile) are reported, the rest stay
+    private <T> List<Parsed<T>> insert(List<Parsed<T>> parsed, Class<T> type, ImportReport report,
+                                       Function<T, String> keyOf) {
+        if (parsed.isEmpty()) return parsed;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        parsed.forEach(p -> bulk.insert(p.value()));
+
+        Set<Integer> rejected = new HashSet<>();
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> {
+                rejected.add(error.getIndex());
+                Parsed<T> row = parsed.get(error.getIndex());
+                if (error.getCode() == 11000) {
+                    report.duplicate(row.line(), keyOf.apply(row.value()), "Already exists.");
+                } else {
+                    report.failed(row.line(), keyOf.apply(row.value()), error.getMessage());
+                }
+            });
+        }
+
+        List<Parsed<T>> inserted = new ArrayList<>(parsed.size() - rejected.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            if (!rejected.contains(i)) inserted.add(parsed.get(i));
+        }
+        report.setInserted(report.getInserted() + inserted.size());
+        return inserted;
+    }
+
+    private static Hotel toHotel(Row row) {
+        Hotel hotel = new Hotel();
+        hotel.setId(new ObjectId().toHexString());
+        hotel.setHotelNumber(required(row, "hotelNumber"));
+        hotel.setName(required(row, "name"));
+        hotel.setLocation(required(row, "location"));
+        hotel.setPricePerNight(price(row));
+        hotel.setAvailable(flag(row, "available"));
+        String latitude = row.get("latitude");
+        String longitude = row.get("longitude");
+        if (StringUtils.hasText(latitude) || StringUtils.hasText(longitude)) {
+            double lat = number(row, "latitude");
+            double lng = number(row, "longitude");
+            if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+                throw new IllegalArgumentException("Latitude must be within ±90 and longitude within ±180.");
+            }
+            hotel.setCoordinates(new GeoJsonPoint(lng, lat));
+        }
+        return hotel;
+    }
+
+    private static Room toRoom(Row row, Set<String> knownHotelIds, Map<String, String> hotelIdByNumber) {
+        String hotelId = row.get("hotelId");
+        if (!StringUtils.hasText(hotelId) && StringUtils.hasText(row.get("hotelNumber"))) {
+            hotelId = hotelIdByNumber.get(row.get("hotelNumber"));
+            if (hotelId == null) {
+                throw new IllegalArgumentException("Hotel not found with number: " + row.get("hotelNumber"));
+            }
+        }
+        if (!StringUtils.hasText(hotelId)) {
+            throw new IllegalArgumentException("hotelId or hotelNumber is required.");
+        }
+        if (!knownHotelIds.contains(hotelId)) {
+            throw new IllegalArgumentException("Hotel not found with ID: " + hotelId);
+        }
+
+        Room room = new Room();
+        room.setId(new ObjectId().toHexString());
+        room.setRoomNumber(required(row, "roomNumber"));
+        room.setType(required(row, "type"));
+        room.setPricePerNight(price(row));
+        room.setAvailable(flag(row, "available"));
+        room.setHotelId(hotelId);
+        room.setImage(StringUtils.hasText(row.get("image")) ? row.get("image") : DEFAULT_ROOM_IMAGE);
+        return room;
+    }
+
+    private static String required(Row row, String field) {
+        String value = row.get(field);
+        if (!StringUtils.hasText(value)) {
+            throw new IllegalArgumentException(field + " is required.");
+        }
+        return value.trim();
+    }
+
+    private static double price(Row row) {
+        double price = number(row, "pricePerNight");
+        if (price < 0) {
+            throw new IllegalArgumentException("pricePerNight must be a positive value.");
+        }
+        return price;
+    }
+
+    private static double number(Row row, String field) {
+        try {
+            return Double.parseDouble(required(row, field));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number.");
+        }
+    }
+
+    // Missing means true, like a room created without the flag
+    private static boolean flag(Row row, String field) {
+        String value = row.get(field);
+        return !StringUtils.hasText(value) || Boolean.parseBoolean(value.trim());
+    }
+
+    private Map<String, String> jsonFields(String text) throws IOException {
+        JsonNode node = objectMapper.readTree(text);
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object per line");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            if (!field.getValue().isNull()) {
+                fields.put(field.getKey(), field.getValue().asText());
+            }
+        }
+        return fields;
+    }
+
+    private static Map<String, String> csvFields(List<String> header, String text) {
+        List<String> values = parseCsvLine(text);
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("more columns than the header");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header.get(i).trim(), values.get(i));
+        }
+        return fields;
+    }
+
+    // RFC 4180 fields on one line: commas, "quoted, fields" and "" for a quote inside quotes
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quote");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static String stripBom(String text) {
+        return text.startsWith("\uFEFF") ? text.substring(1) : text;
+    }
+
+    private static Map<String, String> hotelFields(HotelRequest request) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("hotelNumber", request.getHotelNumber());
+        fields.put("name", request.getName());
+        fields.put("location", request.getLocation());
+        fields.put("pricePerNight", String.valueOf(request.getPricePerNight()));
+        fields.put("available", String.valueOf(request.isAvailable()));
+        if (request.getLatitude() != null) fields.put("latitude", String.valueOf(request.getLatitude()));
+        if (request.getLongitude() != null) fields.put("longitude", String.valueOf(request.getLongitude()));
+        return fields;
+    }
+
+    private record Row(long line, Map<String, String> fields) {
+        String get(String field) {
+            return fields.get(field);
+        }
+    }
+
+    private record Parsed<T>(long line, T value) {
+    }
+}
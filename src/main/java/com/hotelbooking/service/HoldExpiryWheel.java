@@ -0,0 +1,134 @@
+package com.hotelbooking.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hashed timing wheel for checkout holds: one slot per second, constant-time
+ * schedule and cancel, and each tick only touches the holds filed in its slot.
+ * Timers live in memory only; after a restart HoldService re-arms live holds and
+ * the TTL indexes clean up anything the wheel never saw.
+ */
+@Component
+public class HoldExpiryWheel {
+
+    private static final int SLOTS = 512;
+    private static final long TICK_MILLIS = 1000;
+
+    private final List<Set<Timeout>> slots = new ArrayList<>(SLOTS);
+    private final Map<String, Timeout> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+    private long startedAt;
+    private long tick; // guarded by this
+
+    public HoldExpiryWheel() {
+        for (int i = 0; i < SLOTS; i++) {
+            slots.add(new HashSet<>());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        init(System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> advance(System.currentTimeMillis()), TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Starts the clock at startedAt; tests drive the wheel with advance() and no ticker
+    synchronized void init(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    // ✅ Run action once the deadline has passed (replaces an earlier timer with the same id)
+    public synchronized void schedule(String id, Instant deadline, Runnable action) {
+        cancel(id);
+        long elapsed = deadline.toEpochMilli() - startedAt;
+        long due = Math.max(tick + 1, Math.floorDiv(elapsed + TICK_MILLIS - 1, TICK_MILLIS));
+        Timeout timeout = new Timeout(id, due, action);
+        slots.get(slot(due)).add(timeout);
+        pending.put(id, timeout);
+    }
+
+    // ✅ True when the timer was still pending, false when it already fired or never existed
+    public synchronized boolean cancel(String id) {
+        Timeout timeout = pending.remove(id);
+        if (timeout == null) return false;
+        slots.get(slot(timeout.due)).remove(timeout);
+        return true;
+    }
+
+    public int pending() {
+        return pending.size();
+    }
+
+    void advance(long nowMillis) {
+        List<Timeout> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = (nowMillis - startedAt) / TICK_MILLIS;
+            // Catch up slot by slot when a tick was delayed (GC pause, slow expiry action)
+            while (tick < now) {
+                tick++;
+                Iterator<Timeout> timeouts = slots.get(slot(tick)).iterator();
+                while (timeouts.hasNext()) {
+                    Timeout timeout = timeouts.next();
+                    // Deadlines more than one turn away stay for a later lap
+                    if (timeout.due <= tick) {
+                        timeouts.remove();
+                        pending.remove(timeout.id, timeout);
+                        expired.add(timeout);
+                    }
+                }
+            }
+        }
+
+        // Actions run outside the lock so they can schedule or cancel other timers
+        for (Timeout timeout : expired) {
+            try {
+                timeout.action.run();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Hold expiry failed for " + timeout.id + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static int slot(long tick) {
+        return (int) (tick % SLOTS);
+    }
+
+    private static final class Timeout {
+
+        private final String id;
+        private final long due;
+        private final Runnable action;
+
+        Timeout(String id, long due, Runnable action) {
+            this.id = id;
+            this.due = due;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.hotelbooking.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.hotelbooking.dto.HoldRequest;
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.entity.RoomHold;
+import com.hotelbooking.entity.User;
+import com.hotelbooking.event.RoomNightsReleasedEvent;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.repository.RoomHoldRepository;
+import com.hotelbooking.repository.RoomRepository;
+import com.hotelbooking.repository.UserRepository;
+
+/**
+ * Checkout holds: a room kept aside for a few minutes while the guest pays.
+ * A hold claims its nights in the room-night ledger and the availability index
+ * like a booking does, so nobody else can take them; confirming moves those
+ * nights to the new booking. Expiry is driven by the timing wheel, with the
+ * TTL indexes on room_holds and room_nights as the backstop.
+ */
+@Service
+public class HoldService implements CommandLineRunner {
+
+    private static final int DEFAULT_MINUTES = 10;
+    private static final int MAX_ACTIVE_HOLDS_PER_USER = 5;
+
+    @Autowired
+    private RoomHoldRepository holdRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private RoomNightLedger roomNightLedger;
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private HoldExpiryWheel expiryWheel;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ConcurrentLookups concurrentLookups;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // ✅ Re-arm timers for holds that outlived a restart
+    @Override
+    public void run(String... args) {
+        try (Stream<RoomHold> live = holdRepository.findByExpiresAtAfter(Instant.now())) {
+            live.forEach(this::arm);
+        }
+    }
+
+    // ✅ Keep a room for the given stay for N minutes
+    public RoomHold placeHold(HoldRequest request, String username) {
+        if (request == null || !StringUtils.hasText(request.getRoomId())) {
+            throw new BookingException("Room ID is required.");
+        }
+        if (!StringUtils.hasText(username)) {
+            throw new BookingException("User is required.");
+        }
+        bookingService.validateStay(request.getFromDate(), request.getToDate());
+
+        int minutes = request.getMinutes() != null ? request.getMinutes() : DEFAULT_MINUTES;
+        Instant now = Instant.now();
+        if (holdRepository.countByUsernameAndExpiresAtAfter(username, now) >= MAX_ACTIVE_HOLDS_PER_USER) {
+            throw new BookingException("Too many active holds. Confirm or release one first.");
+        }
+
+        // ✅ Fetch User ‖ Room
+        CompletableFuture<User> userLookup = concurrentLookups.supply(() -> userRepository.findByUsername(username)
+                .orElseThrow(() -> new BookingException("User not found")));
+        Room room = roomRepository.findById(request.getRoomId())
+                .orElseThrow(() -> new BookingException("Room not found"));
+        if (!room.isAvailable()) {
+            throw new BookingException("Room is not available");
+        }
+        if (!availabilityIndex.isBookable(room.getId(), request.getFromDate(), request.getToDate())) {
+            throw new BookingException("Room is already booked or held for the selected date range.");
+        }
+        User user = ConcurrentLookups.join(userLookup);
+
+        RoomHold hold = new RoomHold();
+        hold.setId(UUID.randomUUID().toString());
+        hold.setRoomId(room.getId());
+        hold.setHotelId(room.getHotelId());
+        hold.setUserId(user.getId());
+        hold.setUsername(user.getUsername());
+        hold.setFromDate(request.getFromDate());
+        hold.setToDate(request.getToDate());
+        hold.setCreatedAt(LocalDateTime.now());
+        hold.setExpiresAt(now.plus(minutes, ChronoUnit.MINUTES));
+
+        // ✅ Same ledger claim as a booking, so a hold and a booking can never share a night
+        roomNightLedger.claim(hold.getId(), room.getId(), hold.getFromDate(), hold.getToDate(), hold.getExpiresAt());
+
+        RoomHold saved;
+        try {
+            saved = holdRepository.insert(hold);
+        } catch (RuntimeException e) {
+            roomNightLedger.release(hold.getId());
+            throw e;
+        }
+        availabilityIndex.reserve(saved.getId(), saved.getRoomId(), saved.getFromDate(), saved.getToDate());
+        arm(saved);
+        return saved;
+    }
+
+    // ✅ A live hold of the given user
+    public RoomHold getHold(String id, String username) {
+        RoomHold hold = holdRepository.findById(id)
+                .filter(found -> found.getUsername().equals(username))
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found with ID: " + id));
+        if (!hold.getExpiresAt().isAfter(Instant.now())) {
+            throw new ResourceNotFoundException("Hold has expired: " + id);
+        }
+        return hold;
+    }
+
+    // ✅ Turn a live hold into a PENDING booking
+    public Booking confirmHold(String id, String username) {
+        RoomHold hold = getHold(id, username);
+
+        // Stop the timer first; if the hold lapses anyway, the ledger transfer refuses it
+        expiryWheel.cancel(id);
+        Booking booking;
+        try {
+            booking = bookingService.bookHold(hold);
+        } catch (RuntimeException e) {
+            arm(hold);
+            throw e;
+        }
+
+        holdRepository.deleteById(id);
+        availabilityIndex.release(id);
+        return booking;
+    }
+
+    // ✅ Give the room back before the hold runs out
+    public void releaseHold(String id, String username) {
+        getHold(id, username);
+        expiryWheel.cancel(id);
+        expire(id);
+    }
+
+    private void arm(RoomHold hold) {
+        String id = hold.getId();
+        expiryWheel.schedule(id, hold.getExpiresAt(), () -> expire(id));
+    }
+
+    // Nights already moved to a booking carry the booking id, so only unconfirmed ones are freed
+    private void expire(String holdId) {
+        RoomHold hold = holdRepository.findById(holdId).orElse(null);
+        roomNightLedger.release(holdId);
+        availabilityIndex.release(holdId);
+        if (hold == null) return;
+
+        holdRepository.deleteById(holdId);
+        eventPublisher.publishEvent(new RoomNightsReleasedEvent(hold.getRoomId(), hold.getFromDate(), hold.getToDate()));
+    }
+}
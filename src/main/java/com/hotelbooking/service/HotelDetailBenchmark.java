@@ -0,0 +1,78 @@
+package com.hotelbooking.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.hotelbooking.exception.ResourceNotFoundException;
+
+/**
+ * Side-by-side timing of the hotel page: the four calls the page used to make
+ * one after another (hotel, rooms, all reviews, average rating) against the
+ * detail endpoint's parallel build and its cache hit, run in-process against
+ * the live database. The separate path is measured without its four HTTP
+ * round trips, so the real saving is larger than what is reported here.
+ */
+@Service
+public class HotelDetailBenchmark {
+
+    public static final int MAX_ITERATIONS = 1000;
+    private static final int WARMUP_ITERATIONS = 5;
+
+    @Autowired
+    private HotelService hotelService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private ReviewService reviewService;
+    @Autowired
+    private HotelDetailService hotelDetailService;
+
+    // ✅ Latency per path in microseconds, after a short warm-up
+    public Map<String, Object> run(String hotelId, int iterations) {
+        if (hotelService.getHotelById(hotelId) == null) {
+            throw new ResourceNotFoundException("Hotel not found with ID: " + hotelId);
+        }
+        int runs = Math.max(1, Math.min(iterations, MAX_ITERATIONS));
+
+        Runnable separate = () -> {
+            hotelService.getHotelById(hotelId);
+            roomService.getRoomsByHotelId(hotelId);
+            reviewService.getReviewsForHotel(hotelId);
+            reviewService.getAverageRating(hotelId);
+        };
+        Runnable build = () -> hotelDetailService.build(hotelId);
+        Runnable cached = () -> hotelDetailService.detail(hotelId);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("hotelId", hotelId);
+        report.put("iterations", runs);
+        report.put("separateCalls", measure(separate, runs));
+        report.put("detailBuild", measure(build, runs));
+        report.put("detailCached", measure(cached, runs));
+        return report;
+    }
+
+    private static Map<String, Object> measure(Runnable path, int runs) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            path.run();
+        }
+        long[] micros = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long started = System.nanoTime();
+            path.run();
+            micros[i] = (System.nanoTime() - started) / 1_000;
+        }
+        Arrays.sort(micros);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("avgMicros", Arrays.stream(micros).sum() / runs);
+        stats.put("p50Micros", micros[runs / 2]);
+        stats.put("p95Micros", micros[Math.min(runs - 1, (int) Math.ceil(runs * 0.95) - 1)]);
+        stats.put("maxMicros", micros[runs - 1]);
+        return stats;
+    }
+}
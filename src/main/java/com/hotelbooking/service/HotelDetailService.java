@@ -0,0 +1,138 @@
+package com.hotelbooking.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.hotelbooking.dto.HotelDetail;
+import com.hotelbooking.dto.RatingCount;
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.entity.Review;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.event.HotelChangedEvent;
+import com.hotelbooking.event.RoomChangedEvent;
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.ReviewRepository;
+import com.hotelbooking.repository.RoomRepository;
+
+/**
+ * The hotel page in one call: hotel, rooms, star histogram and latest reviews,
+ * fetched in parallel and cached per hotel. Hotel, review and room writes bump
+ * the hotel's version (a new review always re-saves the hotel's average
+ * rating), so a cached page is only served while none of its parts changed;
+ * a short TTL covers writes made on other instances.
+ */
+@Service
+public class HotelDetailService {
+
+    private static final int CACHE_ENTRIES = 1000;
+    private static final long CACHE_TTL_MILLIS = 60_000;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private ConcurrentLookups concurrentLookups;
+    @Autowired
+    private OperationTimings operationTimings;
+
+    private final Map<String, AtomicLong> hotelVersions = new ConcurrentHashMap<>();
+    private final Map<String, String> roomHotels = new ConcurrentHashMap<>();
+
+    private final Map<String, CachedDetail> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedDetail> eldest) {
+            return size() > CACHE_ENTRIES;
+        }
+    };
+
+    // ✅ Served from the cache while the hotel is unchanged, otherwise four lookups at once
+    public HotelDetail detail(String hotelId) {
+        long started = System.nanoTime();
+        long version = version(hotelId).get();
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CachedDetail cached = cache.get(hotelId);
+            if (cached != null && cached.version == version && now - cached.builtAt < CACHE_TTL_MILLIS) {
+                operationTimings.record("hotel.detail.cached", System.nanoTime() - started);
+                return cached.detail;
+            }
+        }
+
+        HotelDetail detail = build(hotelId);
+        synchronized (cache) {
+            // stored with the version read before building, so a change during the build forces a rebuild
+            cache.put(hotelId, new CachedDetail(version, now, detail));
+        }
+        operationTimings.record("hotel.detail.build", System.nanoTime() - started);
+        return detail;
+    }
+
+    @EventListener
+    public void onHotelChanged(HotelChangedEvent event) {
+        invalidate(event.hotelId());
+    }
+
+    @EventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        String previousHotel = event.room() == null ? roomHotels.remove(event.roomId()) : roomHotels.get(event.roomId());
+        if (previousHotel != null) {
+            invalidate(previousHotel);
+        }
+        if (event.room() != null && event.room().getHotelId() != null) {
+            roomHotels.put(event.roomId(), event.room().getHotelId());
+            invalidate(event.room().getHotelId());
+        }
+    }
+
+    // ✅ Hotel ‖ Rooms ‖ star histogram ‖ latest reviews (uncached; HotelDetailBenchmark times it directly)
+    HotelDetail build(String hotelId) {
+        CompletableFuture<List<Room>> roomsLookup = concurrentLookups.supply(() -> roomRepository.findByHotelId(hotelId));
+        CompletableFuture<List<RatingCount>> starsLookup = concurrentLookups.supply(() -> reviewRepository.ratingHistogram(hotelId));
+        CompletableFuture<List<Review>> reviewsLookup = concurrentLookups.supply(() -> reviewRepository.findTop5ByHotelIdOrderByIdDesc(hotelId));
+        Hotel hotel = hotelRepository.findById(hotelId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with ID: " + hotelId));
+
+        List<Room> rooms = ConcurrentLookups.join(roomsLookup);
+        rooms.forEach(room -> roomHotels.put(room.getId(), hotelId));
+        return new HotelDetail(hotel, rooms, summary(ConcurrentLookups.join(starsLookup)), ConcurrentLookups.join(reviewsLookup));
+    }
+
+    private static HotelDetail.RatingSummary summary(List<RatingCount> counts) {
+        Map<Integer, Long> stars = new TreeMap<>();
+        for (int star = 1; star <= 5; star++) {
+            stars.put(star, 0L);
+        }
+        long reviews = 0;
+        long total = 0;
+        for (RatingCount count : counts) {
+            stars.merge(count.getRating(), count.getCount(), Long::sum);
+            reviews += count.getCount();
+            total += (long) count.getRating() * count.getCount();
+        }
+        return new HotelDetail.RatingSummary(reviews == 0 ? 0 : (double) total / reviews, reviews, stars);
+    }
+
+    private void invalidate(String hotelId) {
+        version(hotelId).incrementAndGet();
+    }
+
+    private AtomicLong version(String hotelId) {
+        return hotelVersions.computeIfAbsent(hotelId, id -> new AtomicLong());
+    }
+
+    private record CachedDetail(long version, long builtAt, HotelDetail detail) {
+    }
+}
@@ -0,0 +1,278 @@
+package com.hotelbooking.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.hotelbooking.dto.FacetedSearchResponse;
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.event.HotelChangedEvent;
+import com.hotelbooking.event.RoomChangedEvent;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomRepository;
+
+/**
+ * Faceted hotel search over bitmaps. Every hotel gets a dense ordinal, and
+ * every facet value (location, price band, rating band, room type) keeps a
+ * BitSet of the ordinals that carry it. A search ORs the selected values of a
+ * facet, ANDs the facets together and counts each value against the other
+ * facets' selections, so a guest sees how many hotels every click would leave.
+ * Hotel and room writes arrive as events and flip only the bits they touch.
+ */
+@Service
+public class HotelFacetIndex implements CommandLineRunner {
+
+    public static final String LOCATION = "location";
+    public static final String PRICE = "price";
+    public static final String RATING = "rating";
+    public static final String ROOM_TYPE = "roomType";
+
+    private static final double[] PRICE_BANDS = { 50, 100, 200, 500 };
+
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private final List<Hotel> hotels = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final BitSet freeOrdinals = new BitSet();
+    private final BitSet available = new BitSet();
+    private final Map<String, Facet> facets = new LinkedHashMap<>();
+
+    // Room types per hotel, so a type's bit is cleared only when its last room goes
+    private final Map<String, Map<String, Integer>> roomTypes = new HashMap<>();
+    private final Map<String, Room> rooms = new HashMap<>();
+
+    public HotelFacetIndex() {
+        for (String facet : new String[] { LOCATION, PRICE, RATING, ROOM_TYPE }) {
+            facets.put(facet, new Facet());
+        }
+    }
+
+    @Override
+    public void run(String... args) {
+        rebuild();
+    }
+
+    // ✅ Reload every hotel and room
+    public synchronized void rebuild() {
+        List<Hotel> allHotels = hotelRepository.findAll();
+        List<Room> allRooms = roomRepository.findAll();
+
+        hotels.clear();
+        ordinals.clear();
+        freeOrdinals.clear();
+        available.clear();
+        facets.values().forEach(Facet::clear);
+        roomTypes.clear();
+        rooms.clear();
+        allHotels.forEach(this::putHotel);
+        allRooms.forEach(this::putRoom);
+        System.out.println("✅ Hotel facets built: " + allHotels.size() + " hotels, " + allRooms.size() + " rooms");
+    }
+
+    @EventListener
+    public synchronized void onHotelChanged(HotelChangedEvent event) {
+        if (event.hotel() == null) {
+            removeHotel(event.hotelId());
+        } else {
+            putHotel(event.hotel());
+        }
+    }
+
+    @EventListener
+    public synchronized void onRoomChanged(RoomChangedEvent event) {
+        Room previous = rooms.remove(event.roomId());
+        if (previous != null) {
+            countRoomType(previous.getHotelId(), previous.getType(), -1);
+        }
+        if (event.room() != null) {
+            putRoom(event.room());
+        }
+    }
+
+    // ✅ Available hotels matching every facet (any of the values within one facet), rated best first
+    public synchronized FacetedSearchResponse search(Map<String, List<String>> selected, int page, int size) {
+        Map<String, BitSet> selections = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : selected.entrySet()) {
+            Facet facet = facets.get(entry.getKey());
+            if (facet != null && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                selections.put(entry.getKey(), facet.union(entry.getValue()));
+            }
+        }
+
+        BitSet matches = (BitSet) available.clone();
+        selections.values().forEach(matches::and);
+
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Facet> entry : facets.entrySet()) {
+            BitSet others = (BitSet) available.clone();
+            selections.forEach((name, bits) -> {
+                if (!name.equals(entry.getKey())) others.and(bits);
+            });
+            counts.put(entry.getKey(), entry.getValue().counts(others));
+        }
+
+        List<Hotel> hits = new ArrayList<>(matches.cardinality());
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            hits.add(hotels.get(ordinal));
+        }
+        hits.sort(Comparator.comparingDouble(Hotel::getAverageRating).reversed()
+                .thenComparing(Hotel::getName, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        int from = Math.min(page * size, hits.size());
+        int to = Math.min(from + size, hits.size());
+        return new FacetedSearchResponse(new ArrayList<>(hits.subList(from, to)), page, size, hits.size(), counts);
+    }
+
+    static String priceBand(double price) {
+        double lower = 0;
+        for (double upper : PRICE_BANDS) {
+            if (price < upper) return (int) lower + "-" + (int) upper;
+            lower = upper;
+        }
+        return (int) lower + "+";
+    }
+
+    static String ratingBand(double rating) {
+        if (rating <= 0) return "unrated";
+        int floor = (int) Math.min(Math.floor(rating), 4);
+        return floor + "-" + (floor + 1);
+    }
+
+    private void putHotel(Hotel hotel) {
+        if (hotel.getId() == null) return;
+        int ordinal = ordinal(hotel.getId());
+        Hotel previous = hotels.get(ordinal);
+        if (previous != null) {
+            setHotelBits(previous, ordinal, false);
+        }
+        hotels.set(ordinal, hotel);
+        setHotelBits(hotel, ordinal, true);
+    }
+
+    private void removeHotel(String hotelId) {
+        Integer ordinal = ordinals.remove(hotelId);
+        if (ordinal == null) return;
+        Hotel previous = hotels.set(ordinal, null);
+        if (previous != null) {
+            setHotelBits(previous, ordinal, false);
+        }
+        facets.get(ROOM_TYPE).clearOrdinal(ordinal);
+        roomTypes.remove(hotelId);
+        freeOrdinals.set(ordinal);
+    }
+
+    private void setHotelBits(Hotel hotel, int ordinal, boolean value) {
+        available.set(ordinal, value && hotel.isAvailable());
+        if (hotel.getLocation() != null && !hotel.getLocation().isBlank()) {
+            facets.get(LOCATION).set(hotel.getLocation().trim(), ordinal, value);
+        }
+        facets.get(PRICE).set(priceBand(hotel.getPricePerNight()), ordinal, value);
+        facets.get(RATING).set(ratingBand(hotel.getAverageRating()), ordinal, value);
+    }
+
+    private void putRoom(Room room) {
+        if (room.getHotelId() == null) return;
+        rooms.put(room.getId(), room);
+        countRoomType(room.getHotelId(), room.getType(), 1);
+    }
+
+    private void countRoomType(String hotelId, String type, int delta) {
+        if (hotelId == null || type == null || type.isBlank()) return;
+        if (delta < 0 && !roomTypes.containsKey(hotelId)) return; // hotel already removed
+        String key = HotelSearchIndex.fold(type);
+        Map<String, Integer> types = roomTypes.computeIfAbsent(hotelId, id -> new HashMap<>());
+        int count = types.merge(key, delta, Integer::sum);
+        if (count <= 0) {
+            types.remove(key);
+        }
+        facets.get(ROOM_TYPE).set(type, ordinal(hotelId), count > 0);
+    }
+
+    // A room may arrive before its hotel: the ordinal is taken now and the hotel filled in later
+    private int ordinal(String hotelId) {
+        Integer existing = ordinals.get(hotelId);
+        if (existing != null) return existing;
+
+        int ordinal = freeOrdinals.nextSetBit(0);
+        if (ordinal >= 0) {
+            freeOrdinals.clear(ordinal);
+        } else {
+            ordinal = hotels.size();
+            hotels.add(null);
+        }
+        ordinals.put(hotelId, ordinal);
+        return ordinal;
+    }
+
+    // One bitmap per value, keyed case- and accent-insensitively, shown with the last spelling seen
+    private static class Facet {
+        private final Map<String, BitSet> bits = new HashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+
+        void set(String value, int ordinal, boolean on) {
+            String key = HotelSearchIndex.fold(value);
+            if (on) {
+                bits.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+                labels.put(key, value);
+                return;
+            }
+            BitSet set = bits.get(key);
+            if (set == null) return;
+            set.clear(ordinal);
+            if (set.isEmpty()) {
+                bits.remove(key);
+                labels.remove(key);
+            }
+        }
+
+        void clearOrdinal(int ordinal) {
+            for (String key : new ArrayList<>(bits.keySet())) {
+                BitSet set = bits.get(key);
+                set.clear(ordinal);
+                if (set.isEmpty()) {
+                    bits.remove(key);
+                    labels.remove(key);
+                }
+            }
+        }
+
+        BitSet union(List<String> values) {
+            BitSet union = new BitSet();
+            for (String value : values) {
+                BitSet set = bits.get(HotelSearchIndex.fold(value));
+                if (set != null) union.or(set);
+            }
+            return union;
+        }
+
+        Map<String, Integer> counts(BitSet within) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            bits.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> {
+                        BitSet both = (BitSet) entry.getValue().clone();
+                        both.and(within);
+                        counts.put(labels.get(entry.getKey()), both.cardinality());
+                    });
+            return counts;
+        }
+
+        void clear() {
+            bits.clear();
+            labels.clear();
+        }
+    }
+}
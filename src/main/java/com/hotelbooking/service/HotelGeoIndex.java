@@ -0,0 +1,189 @@
+package com.hotelbooking.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.hotelbooking.dto.NearbyHotel;
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.event.HotelChangedEvent;
+
+/**
+ * Hotels near a point, scored from memory. Hotels with coordinates sit in a
+ * geohash grid of 25-bit cells (about 5 km square at the equator); a search
+ * visits only the cells overlapping the circle's bounding box and measures
+ * great-circle distances for the hotels in them, so a dense city centre costs
+ * a handful of cells rather than a database round trip. Searches that would
+ * span too many cells go to the 2dsphere index on hotels instead.
+ */
+@Service
+public class HotelGeoIndex implements CommandLineRunner {
+
+    public static final double MAX_RADIUS_KM = 500;
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180;
+    private static final int LNG_BITS = 13;
+    private static final int LAT_BITS = 12;
+    private static final int LNG_CELLS = 1 << LNG_BITS;
+    private static final int LAT_CELLS = 1 << LAT_BITS;
+    private static final int MAX_CELLS = 4096;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Map<Long, List<Placed>> cells = new HashMap<>();
+    private final Map<String, Placed> placed = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void run(String... args) {
+        rebuild();
+    }
+
+    // ✅ Reload every hotel that has coordinates
+    public void rebuild() {
+        List<Hotel> hotels = mongoTemplate.find(new Query(Criteria.where("coordinates").exists(true)), Hotel.class);
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            placed.clear();
+            hotels.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("✅ Hotel geo grid built: " + hotels.size() + " hotels");
+    }
+
+    @EventListener
+    public void onHotelChanged(HotelChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.hotelId());
+            if (event.hotel() != null) {
+                add(event.hotel());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ✅ Hotels within radiusKm of the point, in no particular order
+    public List<NearbyHotel> within(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double minLat = latitude - latDelta;
+        double maxLat = latitude + latDelta;
+        // A circle over a pole covers every longitude
+        double lngDelta = minLat <= -90 || maxLat >= 90
+                ? 180
+                : Math.min(180, latDelta / Math.cos(Math.toRadians(latitude)));
+
+        int latLow = latIndex(Math.max(minLat, -90));
+        int latHigh = latIndex(Math.min(maxLat, 90));
+        int lngLow = lngIndex(longitude - lngDelta);
+        int lngSpan = lngDelta >= 180 ? LNG_CELLS : Math.min(LNG_CELLS, lngSteps(longitude - lngDelta, longitude + lngDelta));
+        if ((long) (latHigh - latLow + 1) * lngSpan > MAX_CELLS) {
+            return fromDatabase(latitude, longitude, radiusKm);
+        }
+
+        List<NearbyHotel> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int lat = latLow; lat <= latHigh; lat++) {
+                for (int step = 0; step < lngSpan; step++) {
+                    List<Placed> cell = cells.get(geohash(lat, (lngLow + step) % LNG_CELLS));
+                    if (cell == null) continue;
+                    for (Placed hotel : cell) {
+                        double distance = distanceKm(latitude, longitude, hotel.latitude(), hotel.longitude());
+                        if (distance <= radiusKm) {
+                            found.add(new NearbyHotel(hotel.hotel(), distance, null, null));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Wide searches: the 2dsphere index does the filtering, distances are measured the same way
+    private List<NearbyHotel> fromDatabase(double latitude, double longitude, double radiusKm) {
+        Query query = new Query(Criteria.where("coordinates")
+                .nearSphere(new GeoJsonPoint(longitude, latitude))
+                .maxDistance(radiusKm * 1000));
+        List<NearbyHotel> found = new ArrayList<>();
+        for (Hotel hotel : mongoTemplate.find(query, Hotel.class)) {
+            GeoJsonPoint point = hotel.getCoordinates();
+            found.add(new NearbyHotel(hotel, distanceKm(latitude, longitude, point.getY(), point.getX()), null, null));
+        }
+        return found;
+    }
+
+    private void add(Hotel hotel) {
+        GeoJsonPoint point = hotel.getCoordinates();
+        if (hotel.getId() == null || point == null) return;
+        long cell = geohash(latIndex(point.getY()), lngIndex(point.getX()));
+        Placed entry = new Placed(hotel, point.getY(), point.getX(), cell);
+        cells.computeIfAbsent(cell, c -> new ArrayList<>()).add(entry);
+        placed.put(hotel.getId(), entry);
+    }
+
+    private void remove(String hotelId) {
+        Placed entry = placed.remove(hotelId);
+        if (entry == null) return;
+        List<Placed> cell = cells.get(entry.cell());
+        cell.remove(entry);
+        if (cell.isEmpty()) {
+            cells.remove(entry.cell());
+        }
+    }
+
+    private static int latIndex(double latitude) {
+        return (int) Math.min(LAT_CELLS - 1, Math.floor((latitude + 90) / 180 * LAT_CELLS));
+    }
+
+    private static int lngIndex(double longitude) {
+        int index = (int) Math.floor((longitude + 180) / 360 * LNG_CELLS);
+        return Math.floorMod(index, LNG_CELLS);
+    }
+
+    private static int lngSteps(double fromLongitude, double toLongitude) {
+        return (int) (Math.floor((toLongitude + 180) / 360 * LNG_CELLS) - Math.floor((fromLongitude + 180) / 360 * LNG_CELLS)) + 1;
+    }
+
+    // Interleaved bits, longitude first, as in a geohash string
+    private static long geohash(int latIndex, int lngIndex) {
+        long hash = 0;
+        for (int i = 0; i < LNG_BITS; i++) {
+            hash = (hash << 1) | ((lngIndex >> (LNG_BITS - 1 - i)) & 1);
+            if (i < LAT_BITS) {
+                hash = (hash << 1) | ((latIndex >> (LAT_BITS - 1 - i)) & 1);
+            }
+        }
+        return hash;
+    }
+
+    private record Placed(Hotel hotel, double latitude, double longitude, long cell) {
+    }
+}
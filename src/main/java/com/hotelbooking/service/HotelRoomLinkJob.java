@@ -0,0 +1,24 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Nightly rebuild of Hotel.roomIds, roomCount and room price range from the Rooms collection
+@Component
+public class HotelRoomLinkJob {
+
+    @Autowired
+    private HotelRoomLinks hotelRoomLinks;
+
+    @Scheduled(cron = "${hotels.room-links.cron:0 15 4 * * *}")
+    public void repair() {
+        try {
+            long started = System.currentTimeMillis();
+            hotelRoomLinks.repair();
+            System.out.println("✅ Hotel room links repaired in " + (System.currentTimeMillis() - started) + " ms");
+        } catch (Exception e) {
+            System.out.println("❌ Hotel room link repair failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Link updates are incremental ($inc, $min, $max), so hotels written before them start from a repaired state.
+// Runs before the other runners so the in-memory hotel views load the repaired documents.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class HotelRoomLinkRepair implements CommandLineRunner {
+
+    @Autowired
+    private HotelRoomLinks hotelRoomLinks;
+
+    @Override
+    public void run(String... args) {
+        try {
+            long started = System.currentTimeMillis();
+            hotelRoomLinks.repairLinks();
+            System.out.println("✅ Hotel room links checked in " + (System.currentTimeMillis() - started) + " ms");
+        } catch (Exception e) {
+            System.out.println("❌ Hotel room link repair failed at startup: " + e.getMessage());
+        }
+    }
+}
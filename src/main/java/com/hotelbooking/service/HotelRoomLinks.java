@@ -0,0 +1,132 @@
+package com.hotelbooking.service;
+
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.repository.HotelRepository;
+
+/**
+ * Keeps Hotel.roomIds, roomCount and the room price range in line with the
+ * Rooms collection without rewriting the hotel document. Linking is a single
+ * conditional update ($addToSet together with $inc, $min and $max, matched
+ * only while the id is missing), unlinking the mirror $pull; a removed or
+ * repriced room can take the extreme price with it, so the range of that one
+ * hotel is then recomputed from its rooms. The same repair that rebuilds every
+ * hotel from Rooms in one aggregation runs at startup and nightly.
+ */
+@Service
+public class HotelRoomLinks {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private HotelService hotelService;
+    @Autowired
+    private HotelSearchIndex hotelSearchIndex;
+    @Autowired
+    private HotelFacetIndex hotelFacetIndex;
+    @Autowired
+    private HotelGeoIndex hotelGeoIndex;
+
+    // ✅ A new room was stored: link it to its hotel
+    public void linked(Room room) {
+        linked(room, null);
+    }
+
+    // ✅ A room was stored; previousPrice is its price before the save (null when new or unknown).
+    // A room saved again only needs the price range, and only when its price moved.
+    public void linked(Room room, Double previousPrice) {
+        if (room.getHotelId() == null) return;
+        boolean added = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(room.getHotelId()).and("roomIds").ne(room.getId())),
+                new Update().addToSet("roomIds", room.getId())
+                        .inc("roomCount", 1)
+                        .min("minRoomPrice", room.getPricePerNight())
+                        .max("maxRoomPrice", room.getPricePerNight()),
+                Hotel.class).getModifiedCount() > 0;
+        if (!added && (previousPrice == null || previousPrice != room.getPricePerNight())) {
+            refreshPriceRange(room.getHotelId());
+        }
+        publish(room.getHotelId());
+    }
+
+    // ✅ Freshly inserted rooms (catalog import): one update per hotel, sent as one unordered bulk write
+    public void linked(Collection<Room> rooms) {
+        Map<String, List<Room>> byHotel = rooms.stream()
+                .filter(room -> room.getHotelId() != null)
+                .collect(Collectors.groupingBy(Room::getHotelId));
+        if (byHotel.isEmpty()) return;
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Hotel.class);
+        byHotel.forEach((hotelId, hotelRooms) -> {
+            DoubleSummaryStatistics prices = hotelRooms.stream().mapToDouble(Room::getPricePerNight).summaryStatistics();
+            // new ids cannot be linked yet, so the count grows by exactly the rooms added
+            bulk.updateOne(new Query(Criteria.where("_id").is(hotelId)),
+                    new Update().addToSet("roomIds").each(hotelRooms.stream().map(Room::getId).toArray())
+                            .inc("roomCount", hotelRooms.size())
+                            .min("minRoomPrice", prices.getMin())
+                            .max("maxRoomPrice", prices.getMax()));
+        });
+        bulk.execute();
+        mongoTemplate.find(new Query(Criteria.where("_id").in(byHotel.keySet())), Hotel.class)
+                .forEach(hotelService::changed);
+    }
+
+    // ✅ A room was deleted or moved to another hotel
+    public void unlinked(String hotelId, String roomId) {
+        if (hotelId == null) return;
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(hotelId).and("roomIds").is(roomId)),
+                new Update().pull("roomIds", roomId).inc("roomCount", -1),
+                Hotel.class);
+        refreshPriceRange(hotelId);
+        publish(hotelId);
+    }
+
+    // ✅ Rebuild the links of every hotel from Rooms, then reload the in-memory views of hotels
+    public void repair() {
+        repairLinks();
+        hotelSearchIndex.rebuild();
+        hotelFacetIndex.rebuild();
+        hotelGeoIndex.rebuild();
+    }
+
+    // ✅ Rebuild the stored links only (startup, before the in-memory views load)
+    public void repairLinks() {
+        hotelRepository.repairRoomLinks();
+    }
+
+    private void refreshPriceRange(String hotelId) {
+        Document range = mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("hotelId").is(hotelId)),
+                        Aggregation.group().min("pricePerNight").as("min").max("pricePerNight").as("max")),
+                Room.class, Document.class).getUniqueMappedResult();
+
+        Update update = range == null
+                ? new Update().unset("minRoomPrice").unset("maxRoomPrice")
+                : new Update().set("minRoomPrice", range.get("min")).set("maxRoomPrice", range.get("max"));
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(hotelId)), update, Hotel.class);
+    }
+
+    // In-memory views keep hotel snapshots, so they get the new links too
+    private void publish(String hotelId) {
+        hotelRepository.findById(hotelId).ifPresent(hotelService::changed);
+    }
+}
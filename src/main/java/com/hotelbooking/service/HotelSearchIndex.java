@@ -0,0 +1,236 @@
+package com.hotelbooking.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.event.HotelChangedEvent;
+import com.hotelbooking.repository.HotelRepository;
+
+/**
+ * Typeahead over hotel names and locations, answered from memory. Both fields
+ * are folded (accents stripped, case folded, punctuation turned into spaces)
+ * and every word is posted under its one- and two-letter prefixes and its
+ * trigrams. A query intersects the postings of its words, verifies the
+ * survivors against the folded text and ranks name matches before location
+ * matches, word starts before infixes. HotelService publishes every write, so
+ * the index follows them one hotel at a time.
+ */
+@Service
+public class HotelSearchIndex implements CommandLineRunner {
+
+    public static final int MAX_RESULTS = 50;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void run(String... args) {
+        rebuild();
+    }
+
+    // ✅ Reload every hotel
+    public void rebuild() {
+        List<Hotel> hotels = hotelRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+            hotels.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("✅ Hotel search index built: " + hotels.size() + " hotels");
+    }
+
+    @EventListener
+    public void onHotelChanged(HotelChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.hotelId());
+            if (event.hotel() != null) {
+                add(event.hotel());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ✅ Best matches of every query word in name or location, best first
+    public List<Hotel> search(String query, int limit) {
+        String folded = fold(query);
+        if (folded.isEmpty()) return List.of();
+        String[] words = folded.split(" ");
+
+        List<Ranked> ranked = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String id : candidates(words, true)) {
+                Entry entry = entries.get(id);
+                int score = score(entry, folded, words);
+                if (score > 0) {
+                    ranked.add(new Ranked(entry, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return ranked.stream()
+                .sorted(Comparator.comparingInt(Ranked::score).reversed()
+                        .thenComparing(r -> r.entry().hotel().getAverageRating(), Comparator.reverseOrder())
+                        .thenComparing(r -> r.entry().name()))
+                .limit(Math.max(1, Math.min(limit, MAX_RESULTS)))
+                .map(r -> r.entry().hotel())
+                .toList();
+    }
+
+    // ✅ Every hotel whose location contains the text, ignoring case and accents
+    public List<Hotel> byLocation(String location) {
+        String folded = fold(location);
+        if (folded.isEmpty()) return List.of();
+        String[] words = folded.split(" ");
+
+        List<Hotel> hotels = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String id : candidates(words, false)) {
+                Entry entry = entries.get(id);
+                if (entry.location().contains(folded)) {
+                    hotels.add(entry.hotel());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hotels;
+    }
+
+    // Accents dropped, case folded (ß → ss), anything but letters and digits becomes a single space
+    static String fold(String text) {
+        if (text == null) return "";
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+        String folded = stripped.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        return SEPARATORS.matcher(folded).replaceAll(" ").trim();
+    }
+
+    // Ids posted under every query word; short words only match word starts unless any infix is wanted
+    private Collection<String> candidates(String[] words, boolean prefixesForShortWords) {
+        Set<String> result = null;
+        for (String word : words) {
+            Set<String> matches;
+            if (word.length() < 3) {
+                if (!prefixesForShortWords) return entries.keySet();
+                matches = postings.getOrDefault("^" + word, Set.of());
+            } else {
+                matches = intersect(grams(word));
+            }
+            result = result == null ? new HashSet<>(matches) : retain(result, matches);
+            if (result.isEmpty()) break;
+        }
+        return result == null ? Set.of() : result;
+    }
+
+    private Set<String> intersect(Set<String> grams) {
+        List<Set<String>> lists = new ArrayList<>();
+        for (String gram : grams) {
+            Set<String> ids = postings.get(gram);
+            if (ids == null) return Set.of();
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<String> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private static Set<String> retain(Set<String> result, Set<String> matches) {
+        result.retainAll(matches);
+        return result;
+    }
+
+    // 0 when some word is not really in the text (trigrams can match out of order)
+    private static int score(Entry entry, String query, String[] words) {
+        int score = 0;
+        for (String word : words) {
+            int best;
+            if (entry.name().startsWith(word)) best = 8;
+            else if (entry.name().contains(" " + word)) best = 6;
+            else if (entry.name().contains(word)) best = 4;
+            else if (entry.location().startsWith(word) || entry.location().contains(" " + word)) best = 3;
+            else if (entry.location().contains(word)) best = 2;
+            else return 0;
+            score += best;
+        }
+        if (entry.name().equals(query)) score += 20;
+        else if (entry.name().startsWith(query)) score += 10;
+        return score;
+    }
+
+    private void add(Hotel hotel) {
+        if (hotel.getId() == null) return;
+        Entry entry = new Entry(hotel, fold(hotel.getName()), fold(hotel.getLocation()), new HashSet<>());
+        for (String text : new String[] { entry.name(), entry.location() }) {
+            for (String word : text.split(" ")) {
+                if (word.isEmpty()) continue;
+                entry.keys().add("^" + word.substring(0, 1));
+                if (word.length() > 1) entry.keys().add("^" + word.substring(0, 2));
+                entry.keys().addAll(grams(word));
+            }
+        }
+        for (String key : entry.keys()) {
+            postings.computeIfAbsent(key, k -> new HashSet<>()).add(hotel.getId());
+        }
+        entries.put(hotel.getId(), entry);
+    }
+
+    private void remove(String hotelId) {
+        Entry entry = entries.remove(hotelId);
+        if (entry == null) return;
+        for (String key : entry.keys()) {
+            Set<String> ids = postings.get(key);
+            if (ids != null && ids.remove(hotelId) && ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> grams(String word) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            grams.add(word.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record Entry(Hotel hotel, String name, String location, Set<String> keys) {
+    }
+
+    private record Ranked(Entry entry, int score) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Picks up hotel edits made on other instances, which never reach this one's index
+@Component
+public class HotelSearchIndexJob {
+
+    @Autowired
+    private HotelSearchIndex hotelSearchIndex;
+
+    @Scheduled(fixedDelayString = "${search.hotels.rebuild-ms:600000}", initialDelayString = "${search.hotels.rebuild-ms:600000}")
+    public void rebuild() {
+        try {
+            hotelSearchIndex.rebuild();
+        } catch (Exception e) {
+            System.out.println("❌ Hotel search index rebuild failed: " + e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,39 @@
 package com.hotelbooking.service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.hotelbooking.dto.CursorPage;
+import com.hotelbooking.dto.FreeRoomCount;
+import com.hotelbooking.dto.GeoBackfillEntry;
+import com.hotelbooking.dto.HotelAvailability;
 import com.hotelbooking.dto.HotelRequest;
+import com.hotelbooking.dto.NearbyHotel;
+import com.hotelbooking.dto.PagedResponse;
 import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.event.HotelChangedEvent;
 import com.hotelbooking.exception.HotelException;
 import com.hotelbooking.exception.ResourceNotFoundException;
 import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomRepository;
 import org.springframework.util.StringUtils;
 
 @Service
@@ -17,6 +41,16 @@ public class HotelService {
 
     @Autowired
     private HotelRepository hotelRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private HotelSearchIndex hotelSearchIndex;
+    @Autowired
+    private HotelGeoIndex hotelGeoIndex;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // ✅ Create new hotel
     public Hotel addHotel(HotelRequest request) {
@@ -33,10 +67,11 @@ public class HotelService {
         hotel.setPricePerNight(request.getPricePerNight());
         hotel.setAvailable(request.isAvailable());
         hotel.setHotelNumber(request.getHotelNumber());
-        return hotelRepository.save(hotel);
+        hotel.setCoordinates(coordinates(request.getLatitude(), request.getLongitude()));
+        return changed(hotelRepository.save(hotel));
     }
     public Hotel createHotel(Hotel hotel) {
-        return hotelRepository.save(hotel); // Will throw DuplicateKeyException if hotelNumber is not unique
+        return changed(hotelRepository.save(hotel)); // Will throw DuplicateKeyException if hotelNumber is not unique
     }
 
     // ✅ Get all hotels
@@ -44,6 +79,15 @@ public class HotelService {
         return hotelRepository.findAll();
     }
 
+    // ✅ One keyset page of hotels, ordered by id
+    public CursorPage<Hotel> getHotelsPage(String cursor, int size) {
+        String after = CursorPage.decode(cursor);
+        List<Hotel> hotels = after == null
+                ? hotelRepository.findAllBy(CursorPage.pageable(size))
+                : hotelRepository.findByIdGreaterThan(after, CursorPage.pageable(size));
+        return CursorPage.of(hotels, size, Hotel::getId);
+    }
+
     // ✅ Get single hotel by ID
     public Hotel getHotelById(String id) {
         try {
@@ -60,7 +104,7 @@ public class HotelService {
 
     // ✅ Search hotels by location
     public List<Hotel> getHotelsByLocation(String location) {
-        List<Hotel> hotels = hotelRepository.findByLocationContainingIgnoreCase(location);
+        List<Hotel> hotels = hotelSearchIndex.byLocation(location);
         if (hotels.isEmpty()) {
             throw new HotelException("No hotels found in location: " + location);
         }
@@ -68,20 +112,23 @@ public class HotelService {
     }
 
     // ✅ Update hotel
+    // Only the edited fields are written, so room links maintained concurrently are never overwritten
     public Hotel updateHotel(String id, HotelRequest request) {
-        if (!hotelRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Hotel not found with ID: " + id);
+        Update update = new Update()
+                .set("name", request.getName())
+                .set("location", request.getLocation())
+                .set("pricePerNight", request.getPricePerNight())
+                .set("available", request.isAvailable());
+        if (request.getLatitude() != null || request.getLongitude() != null) {
+            update.set("coordinates", coordinates(request.getLatitude(), request.getLongitude()));
         }
 
-        Hotel hotel = hotelRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with ID: " + id));
-
-        hotel.setName(request.getName());
-        hotel.setLocation(request.getLocation());
-        hotel.setPricePerNight(request.getPricePerNight());
-        hotel.setAvailable(request.isAvailable());
-
-        return hotelRepository.save(hotel);
+        Hotel hotel = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(true), Hotel.class);
+        if (hotel == null) {
+            throw new ResourceNotFoundException("Hotel not found with ID: " + id);
+        }
+        return changed(hotel);
     }
 
     // ✅ Delete hotel
@@ -90,10 +137,149 @@ public class HotelService {
             throw new ResourceNotFoundException("Hotel not found with ID: " + id);
         }
         hotelRepository.deleteById(id);
+        eventPublisher.publishEvent(new HotelChangedEvent(id, null));
+    }
+
+    // ✅ Let the in-memory indexes follow a saved hotel
+    public Hotel changed(Hotel hotel) {
+        eventPublisher.publishEvent(new HotelChangedEvent(hotel.getId(), hotel));
+        return hotel;
     }
  // HotelService.java
-    public List<Hotel> searchHotels(String keyword) {
-        return hotelRepository.searchByNameOrLocation(keyword);
+    public List<Hotel> searchHotels(String keyword, int limit) {
+        return hotelSearchIndex.search(keyword, limit);
+    }
+
+    // ✅ Hotels in a location with enough free rooms for the stay: two queries whatever the hotel count
+    public PagedResponse<HotelAvailability> searchAvailableHotels(String location, LocalDate checkIn, LocalDate checkOut,
+                                                                  int roomsNeeded, double minPrice, double maxPrice,
+                                                                  String sortBy, int page, int size) {
+        Map<String, Hotel> hotels = hotelSearchIndex.byLocation(location).stream()
+                .filter(Hotel::isAvailable)
+                .collect(Collectors.toMap(Hotel::getId, Function.identity()));
+        if (hotels.isEmpty()) {
+            return new PagedResponse<>(List.of(), page, size, 0);
+        }
+
+        List<HotelAvailability> matches = roomRepository
+                .countFreeRoomsByHotel(hotels.keySet(), checkIn, checkOut, minPrice, maxPrice, roomsNeeded).stream()
+                .filter(count -> hotels.containsKey(count.getHotelId()))
+                .map(count -> new HotelAvailability(hotels.get(count.getHotelId()), count.getFreeRooms(), count.getLowestPrice()))
+                .sorted(availabilityOrder(sortBy))
+                .toList();
+
+        List<HotelAvailability> pageItems = matches.stream()
+                .skip((long) page * size)
+                .limit(size)
+                .toList();
+        return new PagedResponse<>(pageItems, page, size, matches.size());
+    }
+
+    // ✅ Available hotels within radiusKm, optionally only those with enough free rooms for the dates
+    public PagedResponse<NearbyHotel> searchNearbyHotels(double latitude, double longitude, double radiusKm,
+                                                         LocalDate checkIn, LocalDate checkOut, int roomsNeeded,
+                                                         String sortBy, int page, int size) {
+        coordinates(latitude, longitude);
+        if (radiusKm <= 0 || radiusKm > HotelGeoIndex.MAX_RADIUS_KM) {
+            throw new HotelException("Radius must be between 0 and " + HotelGeoIndex.MAX_RADIUS_KM + " km.");
+        }
+
+        Map<String, NearbyHotel> nearby = hotelGeoIndex.within(latitude, longitude, radiusKm).stream()
+                .filter(found -> found.getHotel().isAvailable())
+                .collect(Collectors.toMap(found -> found.getHotel().getId(), Function.identity()));
+
+        List<NearbyHotel> matches;
+        if (checkIn == null || checkOut == null || nearby.isEmpty()) {
+            matches = new ArrayList<>(nearby.values());
+        } else {
+            matches = new ArrayList<>();
+            for (FreeRoomCount count : roomRepository.countFreeRoomsByHotel(nearby.keySet(), checkIn, checkOut,
+                    0, Double.MAX_VALUE, roomsNeeded)) {
+                NearbyHotel found = nearby.get(count.getHotelId());
+                if (found == null) continue;
+                found.setFreeRooms(count.getFreeRooms());
+                found.setLowestPrice(count.getLowestPrice());
+                matches.add(found);
+            }
+        }
+        matches.sort(nearbyOrder(sortBy));
+
+        List<NearbyHotel> pageItems = matches.stream()
+                .skip((long) page * size)
+                .limit(size)
+                .toList();
+        return new PagedResponse<>(pageItems, page, size, matches.size());
+    }
+
+    // ✅ Give existing hotels coordinates, by hotel number or for every hotel at a location still without them
+    public Map<String, Object> backfillCoordinates(List<GeoBackfillEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new HotelException("At least one entry is required.");
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Hotel.class);
+        List<Criteria> touched = new ArrayList<>();
+        for (GeoBackfillEntry entry : entries) {
+            Update update = new Update().set("coordinates", coordinates(entry.getLatitude(), entry.getLongitude()));
+            if (StringUtils.hasText(entry.getHotelNumber())) {
+                Criteria byNumber = Criteria.where("hotelNumber").is(entry.getHotelNumber());
+                bulk.updateOne(new Query(byNumber), update);
+                touched.add(byNumber);
+            } else if (StringUtils.hasText(entry.getLocation())) {
+                Criteria atLocation = Criteria.where("location")
+                        .regex("^" + Pattern.quote(entry.getLocation().trim()) + "$", "i");
+                bulk.updateMulti(new Query(new Criteria().andOperator(atLocation,
+                        Criteria.where("coordinates").exists(false))), update);
+                touched.add(atLocation);
+            } else {
+                throw new HotelException("Each entry needs a hotelNumber or a location.");
+            }
+        }
+        int updated = bulk.execute().getModifiedCount();
+
+        // Let every in-memory index see the new coordinates
+        List<Hotel> hotels = mongoTemplate.find(new Query(new Criteria().orOperator(touched)), Hotel.class);
+        hotels.forEach(this::changed);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("entries", entries.size());
+        report.put("hotelsUpdated", updated);
+        return report;
+    }
+
+    private static GeoJsonPoint coordinates(Double latitude, Double longitude) {
+        if (latitude == null && longitude == null) return null;
+        if (latitude == null || longitude == null) {
+            throw new HotelException("Latitude and longitude must be given together.");
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new HotelException("Latitude must be within ±90 and longitude within ±180.");
+        }
+        return new GeoJsonPoint(longitude, latitude);
+    }
+
+    private Comparator<NearbyHotel> nearbyOrder(String sortBy) {
+        Comparator<NearbyHotel> byDistance = Comparator.comparingDouble(NearbyHotel::getDistanceKm);
+        if ("rating".equalsIgnoreCase(sortBy)) {
+            return Comparator.comparingDouble((NearbyHotel n) -> n.getHotel().getAverageRating()).reversed().thenComparing(byDistance);
+        }
+        if ("price".equalsIgnoreCase(sortBy)) {
+            return Comparator.comparingDouble((NearbyHotel n) -> n.getLowestPrice() != null ? n.getLowestPrice() : n.getHotel().getPricePerNight())
+                    .thenComparing(byDistance);
+        }
+        return byDistance;
+    }
+
+    private Comparator<HotelAvailability> availabilityOrder(String sortBy) {
+        Comparator<HotelAvailability> byName = Comparator.comparing(a -> a.getHotel().getName(),
+                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+        if ("rating".equalsIgnoreCase(sortBy)) {
+            return Comparator.comparingDouble((HotelAvailability a) -> a.getHotel().getAverageRating()).reversed().thenComparing(byName);
+        }
+        if ("freeRooms".equalsIgnoreCase(sortBy)) {
+            return Comparator.comparingInt(HotelAvailability::getFreeRooms).reversed().thenComparing(byName);
+        }
+        return Comparator.comparingDouble(HotelAvailability::getLowestPrice).thenComparing(byName);
     }
 
 }
@@ -0,0 +1,22 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Takes over invoice batches whose owner stopped, including this node's own jobs from before a restart
+@Component
+public class InvoiceBatchRescanJob {
+
+    @Autowired
+    private InvoiceBatchService invoiceBatchService;
+
+    @Scheduled(fixedDelayString = "${invoice.batch.rescan-ms:120000}", initialDelayString = "${invoice.batch.rescan-ms:120000}")
+    public void rescan() {
+        try {
+            invoiceBatchService.resumeUnfinished();
+        } catch (Exception e) {
+            System.out.println("❌ Invoice batch rescan failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.hotelbooking.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.hotelbooking.dto.InvoiceBatchRequest;
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.InvoiceBatchJob;
+import com.hotelbooking.enums.BookingStatus;
+import com.hotelbooking.enums.InvoiceBatchStatus;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.repository.InvoiceBatchJobRepository;
+import com.mongodb.MongoInterruptedException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Month-end invoice batches. Jobs run one at a time; each renders invoices on a
+ * small low-priority worker pool, writes one PDF per booking to disk and, at
+ * the end, packs them into a single ZIP. Progress is checkpointed by booking
+ * id, so a job interrupted by a restart continues where it stopped. Every node
+ * looks at unfinished jobs on startup and then periodically, so a node first
+ * claims a job with one findAndModify on its status and owner; the claim lapses
+ * when the owner stops checkpointing, and every later write of the job requires
+ * the claim. Invoices are rendered straight to disk and never go through the
+ * interactive invoice cache.
+ */
+@Service
+public class InvoiceBatchService implements CommandLineRunner {
+
+    private static final int CHECKPOINT_EVERY = 200;
+    private static final long CLAIM_TIMEOUT_MINUTES = 10;
+
+    @Autowired
+    private InvoiceBatchJobRepository jobRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private InvoiceService invoiceService;
+    @Autowired
+    private BookingService bookingService;
+
+    @Value("${invoice.batch.dir:exports/invoices}")
+    private String batchDir;
+
+    // Default leaves most cores to interactive traffic
+    @Value("${invoice.batch.threads:#{T(java.lang.Math).max(1, T(java.lang.Runtime).getRuntime().availableProcessors() / 4)}}")
+    private int workerThreads;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(lowPriority("invoice-batch"));
+    private final Set<String> submitted = ConcurrentHashMap.newKeySet();
+    private volatile ExecutorService workers;
+
+    // ✅ Pick up jobs that were queued or running when the application stopped
+    @Override
+    public void run(String... args) {
+        resumeUnfinished();
+    }
+
+    // ✅ Queue every unfinished job not already queued here; claim() decides which ones this node may run
+    public void resumeUnfinished() {
+        for (InvoiceBatchJob job : jobRepository.findByStatusIn(EnumSet.of(InvoiceBatchStatus.QUEUED, InvoiceBatchStatus.RUNNING))) {
+            submit(job.getId());
+        }
+    }
+
+    public InvoiceBatchJob start(InvoiceBatchRequest request, String requestedBy) {
+        if (request.getFromDate().isAfter(request.getToDate())) {
+            throw new BookingException("'fromDate' must be before or equal to 'toDate'.");
+        }
+
+        InvoiceBatchJob job = new InvoiceBatchJob();
+        job.setHotelId(request.getHotelId());
+        job.setFromDate(request.getFromDate());
+        job.setToDate(request.getToDate());
+        job.setStatus(InvoiceBatchStatus.QUEUED);
+        job.setRequestedBy(requestedBy);
+        job.setCreatedAt(LocalDateTime.now());
+        job.setTotal(mongoTemplate.count(bookingsQuery(job), Booking.class));
+
+        InvoiceBatchJob saved = jobRepository.save(job);
+        submit(saved.getId());
+        return saved;
+    }
+
+    public InvoiceBatchJob getJob(String id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice batch not found with ID: " + id));
+    }
+
+    // ✅ Finished archive on disk
+    public Path archive(String id) {
+        InvoiceBatchJob job = getJob(id);
+        if (job.getStatus() != InvoiceBatchStatus.COMPLETED) {
+            throw new BookingException("Invoice batch is not complete yet: " + job.getStatus());
+        }
+        Path zip = archivePath(id);
+        if (!Files.exists(zip)) {
+            throw new ResourceNotFoundException("Invoice archive is missing for batch: " + id);
+        }
+        return zip;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void submit(String jobId) {
+        if (!submitted.add(jobId)) return;
+        coordinator.submit(() -> {
+            try {
+                process(jobId);
+            } finally {
+                submitted.remove(jobId);
+            }
+        });
+    }
+
+    private void process(String jobId) {
+        InvoiceBatchJob job = claim(jobId);
+        if (job == null) return; // finished, failed or running on another node
+
+        try {
+
+            Path parts = partsDir(jobId);
+            // The archive is only moved into place once every part is in it
+            boolean packed = Files.exists(archivePath(jobId)) && !Files.exists(parts);
+            if (!packed) {
+                Files.createDirectories(parts);
+                renderInvoices(job, parts);
+                packArchive(jobId, parts);
+            }
+
+            updateOwned(jobId, new Update()
+                    .set("status", InvoiceBatchStatus.COMPLETED)
+                    .set("completedAt", LocalDateTime.now()));
+        } catch (ClaimLostException e) {
+            System.out.println("❌ Invoice batch " + jobId + " was taken over by another node");
+        } catch (Exception e) {
+            if (interrupted(e)) {
+                // shutting down: leave the job RUNNING so it resumes from the last checkpoint, on any node
+                release(jobId);
+                return;
+            }
+            try {
+                updateOwned(jobId, new Update().set("status", InvoiceBatchStatus.FAILED).set("error", e.getMessage()));
+            } catch (ClaimLostException lost) {
+                System.out.println("❌ Invoice batch " + jobId + " was taken over by another node");
+            }
+        }
+    }
+
+    // The claim is given up with the interrupt flag cleared, since the driver refuses I/O on an interrupted thread
+    private void release(String jobId) {
+        boolean wasInterrupted = Thread.interrupted();
+        try {
+            mongoTemplate.updateFirst(owned(jobId), new Update().unset("owner"), InvoiceBatchJob.class);
+        } catch (RuntimeException e) {
+            // the claim lapses on its own once the heartbeat is old enough
+            System.out.println("❌ Could not release invoice batch " + jobId + ": " + e.getMessage());
+        } finally {
+            if (wasInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Shutdown interrupts Mongo and file I/O too, which surfaces as other exception types
+    private static boolean interrupted(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) return true;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException
+                    || cause instanceof MongoInterruptedException
+                    || cause instanceof InterruptedIOException
+                    || cause instanceof ClosedByInterruptException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void renderInvoices(InvoiceBatchJob job, Path parts) throws Exception {
+        ExecutorService pool = workers();
+        Semaphore inFlight = new Semaphore(workerThreads);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        int sinceCheckpoint = 0;
+        String lastSubmitted = job.getLastBookingId();
+
+        Query query = bookingsQuery(job).with(Sort.by(Sort.Direction.ASC, "_id"));
+        if (job.getLastBookingId() != null) {
+            query.addCriteria(Criteria.where("_id").gt(job.getLastBookingId()));
+        }
+
+        try (Stream<Booking> bookings = mongoTemplate.stream(query, Booking.class)) {
+            for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+                inFlight.acquire();
+                if (failure.get() != null) throw failure.get();
+
+                pool.execute(() -> {
+                    try {
+                        bookingService.updateStatus(booking);
+                        writeAtomically(parts.resolve(fileName(booking)), booking);
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                lastSubmitted = booking.getId();
+
+                if (++sinceCheckpoint == CHECKPOINT_EVERY) {
+                    checkpoint(job, inFlight, failure, lastSubmitted, sinceCheckpoint);
+                    sinceCheckpoint = 0;
+                }
+            }
+        }
+        checkpoint(job, inFlight, failure, lastSubmitted, sinceCheckpoint);
+    }
+
+    // Wait for every submitted render, then record how far the job got
+    private void checkpoint(InvoiceBatchJob job, Semaphore inFlight, AtomicReference<Exception> failure,
+                            String lastBookingId, int rendered) throws Exception {
+        inFlight.acquire(workerThreads);
+        inFlight.release(workerThreads);
+        if (failure.get() != null) throw failure.get();
+
+        job.setLastBookingId(lastBookingId);
+        job.setProcessed(job.getProcessed() + rendered);
+        job.setHeartbeatAt(LocalDateTime.now());
+        updateOwned(job.getId(), new Update()
+                .set("lastBookingId", job.getLastBookingId())
+                .set("processed", job.getProcessed())
+                .set("heartbeatAt", job.getHeartbeatAt()));
+    }
+
+    // A node whose claim lapsed must not overwrite the progress of the node that took the job over
+    private void updateOwned(String jobId, Update update) throws ClaimLostException {
+        if (mongoTemplate.updateFirst(owned(jobId), update, InvoiceBatchJob.class).getMatchedCount() == 0) {
+            throw new ClaimLostException();
+        }
+    }
+
+    private Query owned(String jobId) {
+        return new Query(Criteria.where("_id").is(jobId).and("owner").is(nodeId));
+    }
+
+    // ✅ Take a queued job, a job this node was running, or one whose owner went quiet; null when none applies
+    private InvoiceBatchJob claim(String jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        Query unclaimed = new Query(Criteria.where("_id").is(jobId)
+                .and("status").in(InvoiceBatchStatus.QUEUED, InvoiceBatchStatus.RUNNING)
+                .orOperator(
+                        Criteria.where("owner").is(null),
+                        Criteria.where("owner").is(nodeId),
+                        Criteria.where("heartbeatAt").lt(now.minusMinutes(CLAIM_TIMEOUT_MINUTES))));
+        return mongoTemplate.findAndModify(unclaimed,
+                new Update().set("status", InvoiceBatchStatus.RUNNING).set("owner", nodeId).set("heartbeatAt", now),
+                FindAndModifyOptions.options().returnNew(true),
+                InvoiceBatchJob.class);
+    }
+
+    private void packArchive(String jobId, Path parts) throws IOException {
+        Path zip = archivePath(jobId);
+        Path temp = zip.resolveSibling(zip.getFileName() + ".tmp");
+
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(temp));
+             DirectoryStream<Path> pdfs = Files.newDirectoryStream(parts, "*.pdf")) {
+            for (Path pdf : pdfs) {
+                out.putNextEntry(new ZipEntry(pdf.getFileName().toString()));
+                Files.copy(pdf, out);
+                out.closeEntry();
+            }
+        }
+        Files.move(temp, zip, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        try (Stream<Path> files = Files.list(parts)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(parts);
+    }
+
+    private Query bookingsQuery(InvoiceBatchJob job) {
+        return new Query(Criteria.where("hotelId").is(job.getHotelId())
+                .and("status").ne(BookingStatus.CANCELLED)
+                .and("fromDate").lte(job.getToDate())
+                .and("toDate").gte(job.getFromDate()));
+    }
+
+    private synchronized ExecutorService workers() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(workerThreads, lowPriority("invoice-render"));
+        }
+        return workers;
+    }
+
+    private Path partsDir(String jobId) {
+        return Paths.get(batchDir, jobId);
+    }
+
+    private Path archivePath(String jobId) {
+        return Paths.get(batchDir, jobId + ".zip");
+    }
+
+    private static String fileName(Booking booking) {
+        String name = booking.getBookingNumber() != null ? booking.getBookingNumber() : booking.getId();
+        return "invoice_" + name.replaceAll("[^A-Za-z0-9_-]", "_") + ".pdf";
+    }
+
+    private void writeAtomically(Path target, Booking booking) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            invoiceService.render(booking, out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static final class ClaimLostException extends Exception {
+    }
+
+    private static ThreadFactory lowPriority(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        };
+    }
+}
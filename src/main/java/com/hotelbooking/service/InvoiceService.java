@@ -0,0 +1,214 @@
+package com.hotelbooking.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.hotelbooking.entity.Booking;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+
+/**
+ * Renders booking invoices straight into the response stream and keeps the
+ * last rendered copies in a small LRU cache. The ETag is a digest of the
+ * fields printed on the invoice, so unchanged bookings answer 304 without
+ * rendering anything.
+ */
+@Service
+public class InvoiceService {
+
+    // Bump when the invoice layout changes so cached copies and client ETags are invalidated
+    private static final String LAYOUT_VERSION = "2";
+    private static final int CACHE_ENTRIES = 1_000;
+    private static final int CACHE_MAX_BYTES_PER_ENTRY = 256 * 1024;
+
+    // Fonts are immutable once built, so build them once
+    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+    private static final Font BODY_FONT = FontFactory.getFont(FontFactory.HELVETICA, 12);
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private OperationTimings operationTimings;
+
+    private final Map<String, CachedInvoice> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedInvoice> eldest) {
+            return size() > CACHE_ENTRIES;
+        }
+    };
+
+    // ✅ 304 when the client copy is current, cached bytes when we have them, otherwise stream a fresh render
+    public ResponseEntity<StreamingResponseBody> invoiceResponse(Booking booking, String ifNoneMatch) {
+        String etag = etag(booking);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "invoice_" + booking.getBookingNumber() + ".pdf");
+
+        byte[] cached = cached(booking.getId(), etag);
+        if (cached != null) {
+            headers.setContentLength(cached.length);
+            return ResponseEntity.ok().headers(headers).body(out -> out.write(cached));
+        }
+
+        return ResponseEntity.ok().headers(headers).body(out -> {
+            CapturingOutputStream capture = new CapturingOutputStream(out, CACHE_MAX_BYTES_PER_ENTRY);
+            render(booking, capture);
+            capture.flush();
+            if (!capture.overflowed()) {
+                store(booking.getId(), etag, capture.captured());
+            }
+        });
+    }
+
+    public String etag(Booking booking) {
+        String content = String.join("|", LAYOUT_VERSION,
+                booking.getId(), booking.getBookingNumber(), booking.getUsername(), booking.getHotelName(),
+                booking.getRoomNumber(), String.valueOf(booking.getFromDate()), String.valueOf(booking.getToDate()),
+                String.valueOf(booking.getStatus()), String.valueOf(booking.getPricePerNight()),
+                String.valueOf(booking.getNightlyPrices()));
+        return "\"" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // ✅ Render the PDF into any stream; the stream is left open
+    public void render(Booking booking, OutputStream out) throws IOException {
+        long wallStart = System.nanoTime();
+        long cpuStart = THREADS.getCurrentThreadCpuTime();
+        try {
+            Document document = new Document();
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            document.open();
+
+            document.add(new Paragraph("Hotel Booking Invoice", TITLE_FONT));
+            document.add(new Paragraph("-----------------------------------------------------", BODY_FONT));
+            document.add(new Paragraph("Booking Number: " + booking.getBookingNumber(), BODY_FONT));
+            document.add(new Paragraph("User: " + booking.getUsername(), BODY_FONT));
+            document.add(new Paragraph("Hotel: " + booking.getHotelName(), BODY_FONT));
+            document.add(new Paragraph("Room: " + booking.getRoomNumber(), BODY_FONT));
+            document.add(new Paragraph("From: " + booking.getFromDate(), BODY_FONT));
+            document.add(new Paragraph("To: " + booking.getToDate(), BODY_FONT));
+            document.add(new Paragraph("Status: " + booking.getStatus(), BODY_FONT));
+            long nights = booking.getToDate().toEpochDay() - booking.getFromDate().toEpochDay() + 1;
+            double total;
+            List<Double> nightlyPrices = booking.getNightlyPrices();
+            if (nightlyPrices != null && nightlyPrices.size() == nights) {
+                // ✅ Quoted price of every night
+                total = 0;
+                for (int night = 0; night < nightlyPrices.size(); night++) {
+                    document.add(new Paragraph("  " + booking.getFromDate().plusDays(night) + ": ₹" + nightlyPrices.get(night), BODY_FONT));
+                    total += nightlyPrices.get(night);
+                }
+                total = Math.round(total * 100) / 100.0;
+            } else {
+                document.add(new Paragraph("Price per night: ₹" + booking.getPricePerNight(), BODY_FONT));
+                total = nights * booking.getPricePerNight();
+            }
+
+            document.add(new Paragraph("Nights: " + nights, BODY_FONT));
+            document.add(new Paragraph("Total: ₹" + total, BODY_FONT));
+
+            document.add(new Paragraph("\nThank you for booking with us.", BODY_FONT));
+            document.close();
+        } catch (DocumentException e) {
+            throw new IOException("Failed to render invoice for booking " + booking.getId(), e);
+        } finally {
+            long cpuEnd = THREADS.getCurrentThreadCpuTime();
+            operationTimings.record("invoice.render", System.nanoTime() - wallStart,
+                    cpuStart < 0 || cpuEnd < 0 ? -1 : cpuEnd - cpuStart);
+        }
+    }
+
+    private byte[] cached(String bookingId, String etag) {
+        synchronized (cache) {
+            CachedInvoice entry = cache.get(bookingId);
+            return entry != null && entry.etag.equals(etag) ? entry.pdf : null;
+        }
+    }
+
+    private void store(String bookingId, String etag, byte[] pdf) {
+        synchronized (cache) {
+            cache.put(bookingId, new CachedInvoice(etag, pdf));
+        }
+    }
+
+    private record CachedInvoice(String etag, byte[] pdf) {
+    }
+
+    // Passes bytes through to the client while keeping a copy for the cache, up to a limit
+    private static final class CapturingOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream(4096);
+
+        CapturingOutputStream(OutputStream target, int limit) {
+            this.target = target;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        boolean overflowed() {
+            return copy == null;
+        }
+
+        byte[] captured() {
+            return copy.toByteArray();
+        }
+
+        private void checkLimit() {
+            if (copy.size() > limit) {
+                copy = null;
+            }
+        }
+    }
+}
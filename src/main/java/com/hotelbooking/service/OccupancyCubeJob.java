@@ -0,0 +1,24 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Nightly reconciliation of the occupancy cubes against the bookings
+@Component
+public class OccupancyCubeJob {
+
+    @Autowired
+    private OccupancyCubeService occupancyCubeService;
+
+    @Scheduled(cron = "${analytics.cube.cron:0 30 3 * * *}")
+    public void rebuild() {
+        try {
+            long started = System.currentTimeMillis();
+            occupancyCubeService.rebuild();
+            System.out.println("✅ Occupancy cubes rebuilt in " + (System.currentTimeMillis() - started) + " ms");
+        } catch (Exception e) {
+            System.out.println("❌ Occupancy cube rebuild failed: " + e.getMessage());
+        }
+    }
+}
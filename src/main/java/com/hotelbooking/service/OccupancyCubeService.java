@@ -0,0 +1,212 @@
+package com.hotelbooking.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.hotelbooking.dto.OccupancyReport;
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.OccupancyCube;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.enums.BookingStatus;
+import com.hotelbooking.event.RoomChangedEvent;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.RoomRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Daily occupancy and revenue cubes per hotel and room type. BookingService
+ * reports each create, cancel and delete, which becomes one $inc upsert per
+ * night off the request thread; a nightly rebuild from the Bookings collection
+ * corrects anything an update missed. Reports read only the cubes and a cached
+ * count of each hotel's rooms.
+ */
+@Service
+public class OccupancyCubeService {
+
+    private static final long MAX_REPORT_DAYS = 731;
+    private static final int UPDATE_THREADS = 2;
+    private static final int UPDATE_QUEUE = 10_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private PriceCalendarService priceCalendar;
+
+    // Own bounded pool, so cube writes never queue ahead of booking lookups; when full the caller applies them
+    private final ThreadPoolExecutor updates = new ThreadPoolExecutor(UPDATE_THREADS, UPDATE_THREADS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(UPDATE_QUEUE), runnable -> {
+                Thread thread = new Thread(runnable, "occupancy-cube");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+    // hotelId -> room type -> rooms; dropped on any room change
+    private final Map<String, Map<String, Integer>> roomCounts = new ConcurrentHashMap<>();
+
+    // ✅ A new booking sells its nights
+    public void booked(Booking booking) {
+        apply(booking, 1, 0);
+    }
+
+    public void booked(List<Booking> bookings) {
+        bookings.forEach(this::booked);
+    }
+
+    // ✅ A cancelled booking gives its nights back and counts as a cancellation
+    public void cancelled(Booking booking) {
+        apply(booking, -1, 1);
+    }
+
+    // ✅ A deleted booking gives back whatever it still counted for, as the rebuild no longer sees it
+    public void deleted(Booking booking) {
+        if (booking.getStatus() == BookingStatus.CANCELLED) {
+            apply(booking, 0, -1);
+        } else {
+            apply(booking, -1, 0);
+        }
+    }
+
+    // ✅ Recompute all cubes from the bookings
+    public void rebuild() {
+        bookingRepository.rebuildOccupancyCubes(ZoneId.systemDefault().getId());
+        roomCounts.clear();
+    }
+
+    @EventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        roomCounts.clear();
+    }
+
+    // ✅ Let queued updates finish; whatever is still pending after that is left to the nightly rebuild
+    @PreDestroy
+    public void shutdown() {
+        updates.shutdown();
+        try {
+            if (!updates.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("❌ Occupancy cube updates dropped at shutdown: " + updates.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ✅ Totals and per-day cubes of a hotel for up to two years, read from the cubes only
+    public OccupancyReport report(String hotelId, LocalDate fromDate, LocalDate toDate, String roomType) {
+        if (!StringUtils.hasText(hotelId)) {
+            throw new BookingException("Hotel ID is required.");
+        }
+        if (fromDate == null || toDate == null || fromDate.isAfter(toDate)) {
+            throw new BookingException("'fromDate' must be before or equal to 'toDate'.");
+        }
+        long days = ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+        if (days > MAX_REPORT_DAYS) {
+            throw new BookingException("A report covers at most " + MAX_REPORT_DAYS + " days.");
+        }
+
+        Criteria criteria = Criteria.where("hotelId").is(hotelId).and("day").gte(fromDate).lte(toDate);
+        if (StringUtils.hasText(roomType)) {
+            criteria.and("roomType").is(roomType);
+        }
+        List<OccupancyCube> cubes = mongoTemplate.find(
+                new Query(criteria).with(Sort.by("day", "roomType")), OccupancyCube.class);
+
+        Map<String, Integer> counts = roomCounts(hotelId);
+        int rooms = StringUtils.hasText(roomType)
+                ? counts.getOrDefault(roomType, 0)
+                : counts.values().stream().mapToInt(Integer::intValue).sum();
+
+        OccupancyReport report = new OccupancyReport();
+        report.setHotelId(hotelId);
+        report.setRoomType(StringUtils.hasText(roomType) ? roomType : null);
+        report.setFromDate(fromDate);
+        report.setToDate(toDate);
+        report.setRooms(rooms);
+        for (OccupancyCube cube : cubes) {
+            report.setNightsSold(report.getNightsSold() + cube.getNightsSold());
+            report.setRevenue(report.getRevenue() + cube.getRevenue());
+            report.setCancellations(report.getCancellations() + cube.getCancellations());
+        }
+        report.setOccupancyRate(rooms == 0 ? 0 : (double) report.getNightsSold() / (rooms * days));
+        report.setDays(cubes);
+        return report;
+    }
+
+    private void apply(Booking booking, int nightsDelta, int cancellations) {
+        if (booking.getHotelId() == null || booking.getFromDate() == null || booking.getToDate() == null) return;
+
+        updates.execute(() -> {
+            try {
+                String roomType = roomType(booking);
+                // occupancy-based prices follow the sold nights
+                if (nightsDelta != 0) {
+                    priceCalendar.sold(booking.getHotelId(), roomType, booking.getFromDate(), booking.getToDate(), nightsDelta);
+                }
+
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OccupancyCube.class);
+                int index = 0;
+                for (LocalDate night = booking.getFromDate(); !night.isAfter(booking.getToDate()); night = night.plusDays(1)) {
+                    bulk.upsert(new Query(Criteria.where("_id").is(OccupancyCube.key(booking.getHotelId(), roomType, night))),
+                            new Update()
+                                    .setOnInsert("hotelId", booking.getHotelId())
+                                    .setOnInsert("roomType", roomType)
+                                    .setOnInsert("day", night)
+                                    .inc("nightsSold", nightsDelta)
+                                    .inc("revenue", nightsDelta * priceOfNight(booking, index++))
+                                    .inc("cancellations", cancellations));
+                }
+                bulk.execute();
+            } catch (RuntimeException e) {
+                // the nightly rebuild repairs the cube
+                System.err.println("❌ Occupancy cube update failed for booking " + booking.getId() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private Map<String, Integer> roomCounts(String hotelId) {
+        return roomCounts.computeIfAbsent(hotelId, id -> {
+            Map<String, Integer> counts = new HashMap<>();
+            for (Room room : roomRepository.findByHotelId(id)) {
+                counts.merge(room.getType() == null ? "" : room.getType(), 1, Integer::sum);
+            }
+            return counts;
+        });
+    }
+
+    private static double priceOfNight(Booking booking, int index) {
+        List<Double> prices = booking.getNightlyPrices();
+        return prices != null && index < prices.size() ? prices.get(index) : booking.getPricePerNight();
+    }
+
+    // Bookings made before roomType was stored fall back to the room, like the rebuild does
+    private String roomType(Booking booking) {
+        if (booking.getRoomType() != null) return booking.getRoomType();
+        return roomRepository.findById(booking.getRoomId())
+                .map(Room::getType)
+                .orElse("");
+    }
+}
@@ -0,0 +1,62 @@
+package com.hotelbooking.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Lightweight in-process timing counters keyed by operation name, e.g.
+ * "invoice.render" or "booking.create.room". Exposed to admins for latency checks.
+ */
+@Component
+public class OperationTimings {
+
+    private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+
+    public void record(String operation, long wallNanos) {
+        record(operation, wallNanos, -1);
+    }
+
+    // ✅ cpuNanos < 0 when CPU time was not measured
+    public void record(String operation, long wallNanos, long cpuNanos) {
+        Timing timing = timings.computeIfAbsent(operation, name -> new Timing());
+        timing.count.increment();
+        timing.wallNanos.add(wallNanos);
+        timing.maxNanos.accumulate(wallNanos);
+        if (cpuNanos >= 0) {
+            timing.cpuNanos.add(cpuNanos);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        timings.forEach((name, timing) -> {
+            long count = timing.count.sum();
+            long wall = timing.wallNanos.sum();
+            long cpu = timing.cpuNanos.sum();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", count);
+            stats.put("avgMicros", count == 0 ? 0 : wall / count / 1_000);
+            stats.put("maxMicros", timing.maxNanos.get() / 1_000);
+            if (cpu > 0) {
+                // operations one core can complete per second
+                stats.put("perCpuSecond", count * 1_000_000_000L / cpu);
+            }
+            result.put(name, stats);
+        });
+        return result;
+    }
+
+    private static final class Timing {
+        final LongAdder count = new LongAdder();
+        final LongAdder wallNanos = new LongAdder();
+        final LongAdder cpuNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+}
@@ -0,0 +1,23 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Moves the price calendar window to today, after the occupancy cubes were reconciled
+@Component
+public class PriceCalendarJob {
+
+    @Autowired
+    private PriceCalendarService priceCalendarService;
+
+    @Scheduled(cron = "${pricing.rebuild.cron:0 45 3 * * *}")
+    public void rebuild() {
+        try {
+            priceCalendarService.rebuild();
+            System.out.println("✅ Price calendars rebuilt");
+        } catch (Exception e) {
+            System.out.println("❌ Price calendar rebuild failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.hotelbooking.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.hotelbooking.dto.PriceQuote;
+import com.hotelbooking.entity.OccupancyCube;
+import com.hotelbooking.entity.PricingRule;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.event.RoomChangedEvent;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.repository.PricingRuleRepository;
+import com.hotelbooking.repository.RoomRepository;
+
+/**
+ * Per-night pricing without database reads. For every hotel and room type the
+ * calendar keeps a float array of price factors, one per day from today over
+ * the pricing horizon, next to the nights already sold on each day. A room's
+ * nightly price is its base price times the factor, and a quote sums a slice.
+ * Rule edits, room changes and bookings recompute only the calendars and days
+ * they touch; a daily rebuild moves the window forward.
+ */
+@Service
+public class PriceCalendarService implements CommandLineRunner {
+
+    private static final double MAX_MULTIPLIER = 10;
+
+    @Value("${pricing.horizon-days:400}")
+    private int horizonDays;
+
+    @Autowired
+    private PricingRuleRepository pricingRuleRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Rebuilt off to the side and swapped in, so a quote never sees a half-filled map
+    private volatile Map<String, RoomRate> rates = new ConcurrentHashMap<>();
+    private volatile Map<String, List<PricingRule>> rulesByHotel = new ConcurrentHashMap<>();
+    private volatile Map<String, PriceCalendar> calendars = new ConcurrentHashMap<>();
+    private volatile long baseDay = LocalDate.now().toEpochDay();
+
+    // Incremental updates share the lock, a rebuild takes it exclusively
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    @Override
+    public void run(String... args) {
+        rebuild();
+        System.out.println("✅ Price calendars built: " + calendars.size());
+    }
+
+    // ✅ Quote a stay from memory (the room is loaded once if it was never seen)
+    public PriceQuote quote(String roomId, LocalDate fromDate, LocalDate toDate) {
+        RoomRate rate = rates.get(roomId);
+        if (rate == null) {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Room not found with ID: " + roomId));
+            rate = RoomRate.of(room);
+            rates.putIfAbsent(roomId, rate);
+        }
+        return quote(roomId, rate, fromDate, toDate);
+    }
+
+    // ✅ Quote with a room the caller already has (booking creation)
+    public PriceQuote quote(Room room, LocalDate fromDate, LocalDate toDate) {
+        return quote(room.getId(), RoomRate.of(room), fromDate, toDate);
+    }
+
+    // ✅ Nights sold changed for a hotel / room type: update the counts and reprice those days
+    public void sold(String hotelId, String roomType, LocalDate fromDate, LocalDate toDate, int delta) {
+        rebuildLock.readLock().lock();
+        try {
+            long base = baseDay;
+            PriceCalendar calendar = calendars.computeIfAbsent(key(hotelId, roomType),
+                    k -> new PriceCalendar(hotelId, typeKey(roomType), horizonDays));
+            int from = (int) Math.max(fromDate.toEpochDay() - base, 0);
+            int to = (int) Math.min(toDate.toEpochDay() - base, horizonDays - 1);
+            if (to < from) return;
+
+            synchronized (calendar) {
+                for (int day = from; day <= to; day++) {
+                    calendar.sold[day] = Math.max(0, calendar.sold[day] + delta);
+                }
+                reprice(calendar, base, from, to);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // ✅ Keep base prices and room counts in line with the Rooms collection
+    @EventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            RoomRate previous = event.room() == null
+                    ? rates.remove(event.roomId())
+                    : rates.put(event.roomId(), RoomRate.of(event.room()));
+            if (previous != null) {
+                adjustRooms(previous.calendarKey, previous.hotelId, previous.roomType, -1);
+            }
+            if (event.room() != null && event.room().getHotelId() != null) {
+                RoomRate current = RoomRate.of(event.room());
+                adjustRooms(current.calendarKey, current.hotelId, current.roomType, 1);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public List<PricingRule> getRules(String hotelId) {
+        return pricingRuleRepository.findByHotelId(hotelId);
+    }
+
+    // ✅ Store a rule and reprice every calendar of its hotel
+    public PricingRule saveRule(PricingRule rule) {
+        validate(rule);
+        String previousHotelId = rule.getId() == null ? null : pricingRuleRepository.findById(rule.getId())
+                .map(PricingRule::getHotelId)
+                .orElse(null);
+        PricingRule saved = pricingRuleRepository.save(rule);
+        rulesChanged(saved.getHotelId());
+        if (previousHotelId != null && !previousHotelId.equals(saved.getHotelId())) {
+            rulesChanged(previousHotelId);
+        }
+        return saved;
+    }
+
+    public void deleteRule(String id) {
+        PricingRule rule = pricingRuleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pricing rule not found with ID: " + id));
+        pricingRuleRepository.delete(rule);
+        rulesChanged(rule.getHotelId());
+    }
+
+    // ✅ Reload rules, rooms and sold nights and start the window at today
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            long base = LocalDate.now().toEpochDay();
+
+            Map<String, List<PricingRule>> freshRules = new ConcurrentHashMap<>(pricingRuleRepository.findAll().stream()
+                    .collect(Collectors.groupingBy(PricingRule::getHotelId)));
+
+            Map<String, RoomRate> freshRates = new ConcurrentHashMap<>();
+            Map<String, PriceCalendar> fresh = new ConcurrentHashMap<>();
+            for (Room room : roomRepository.findAll()) {
+                if (room.getHotelId() == null) continue;
+                RoomRate rate = RoomRate.of(room);
+                freshRates.put(room.getId(), rate);
+                fresh.computeIfAbsent(rate.calendarKey, k -> new PriceCalendar(rate.hotelId, rate.roomType, horizonDays))
+                        .rooms++;
+            }
+
+            Query window = new Query(Criteria.where("day")
+                    .gte(LocalDate.ofEpochDay(base))
+                    .lt(LocalDate.ofEpochDay(base + horizonDays)));
+            for (OccupancyCube cube : mongoTemplate.find(window, OccupancyCube.class)) {
+                PriceCalendar calendar = fresh.computeIfAbsent(key(cube.getHotelId(), cube.getRoomType()),
+                        k -> new PriceCalendar(cube.getHotelId(), typeKey(cube.getRoomType()), horizonDays));
+                calendar.sold[(int) (cube.getDay().toEpochDay() - base)] = (int) Math.max(0, cube.getNightsSold());
+            }
+
+            for (PriceCalendar calendar : fresh.values()) {
+                reprice(calendar, freshRules, base, 0, horizonDays - 1);
+            }
+            rulesByHotel = freshRules;
+            rates = freshRates;
+            baseDay = base;
+            calendars = fresh;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private PriceQuote quote(String roomId, RoomRate rate, LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null || toDate == null || fromDate.isAfter(toDate)) {
+            throw new BookingException("'fromDate' must be before or equal to 'toDate'.");
+        }
+
+        long base = baseDay;
+        PriceCalendar calendar = calendars.get(rate.calendarKey);
+        List<PricingRule> rules = rulesByHotel.getOrDefault(rate.hotelId, List.of());
+        int nights = (int) (toDate.toEpochDay() - fromDate.toEpochDay() + 1);
+        List<Double> prices = new ArrayList<>(nights);
+        double total = 0;
+
+        for (int night = 0; night < nights; night++) {
+            long day = fromDate.toEpochDay() + night;
+            int index = (int) (day - base);
+            double factor;
+            if (calendar != null && index >= 0 && index < horizonDays) {
+                factor = calendar.factors[index];
+            } else {
+                // beyond the window nothing is sold yet
+                factor = factor(rules, rate.roomType, LocalDate.ofEpochDay(day), 0);
+            }
+            double price = round(rate.basePrice * factor);
+            prices.add(price);
+            total += price;
+        }
+
+        total = round(total);
+        return new PriceQuote(roomId, fromDate, toDate, prices, total, round(total / nights));
+    }
+
+    private void rulesChanged(String hotelId) {
+        rebuildLock.readLock().lock();
+        try {
+            rulesByHotel.put(hotelId, pricingRuleRepository.findByHotelId(hotelId));
+            long base = baseDay;
+            for (PriceCalendar calendar : calendars.values()) {
+                if (!hotelId.equals(calendar.hotelId)) continue;
+                synchronized (calendar) {
+                    reprice(calendar, base, 0, horizonDays - 1);
+                }
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void adjustRooms(String calendarKey, String hotelId, String roomType, int delta) {
+        PriceCalendar calendar = calendars.computeIfAbsent(calendarKey,
+                k -> new PriceCalendar(hotelId, roomType, horizonDays));
+        synchronized (calendar) {
+            calendar.rooms = Math.max(0, calendar.rooms + delta);
+            // occupancy of every day depends on the room count
+            reprice(calendar, baseDay, 0, horizonDays - 1);
+        }
+    }
+
+    // Caller holds the calendar's monitor (or owns it exclusively during a rebuild)
+    private void reprice(PriceCalendar calendar, long base, int from, int to) {
+        reprice(calendar, rulesByHotel, base, from, to);
+    }
+
+    private void reprice(PriceCalendar calendar, Map<String, List<PricingRule>> rulesOf, long base, int from, int to) {
+        List<PricingRule> rules = rulesOf.getOrDefault(calendar.hotelId, List.of());
+        for (int day = from; day <= to; day++) {
+            double occupancy = calendar.rooms == 0 ? 0 : (double) calendar.sold[day] / calendar.rooms;
+            calendar.factors[day] = (float) factor(rules, calendar.roomType, LocalDate.ofEpochDay(base + day), occupancy);
+        }
+    }
+
+    // Season and weekday multipliers compound; of the occupancy rules only the highest tier reached applies
+    private static double factor(List<PricingRule> rules, String roomType, LocalDate day, double occupancy) {
+        double factor = 1;
+        PricingRule tier = null;
+        for (PricingRule rule : rules) {
+            if (rule.getRoomType() != null && !rule.getRoomType().equals(roomType)) continue;
+            switch (rule.getType()) {
+                case SEASON -> {
+                    if (!day.isBefore(rule.getFromDate()) && !day.isAfter(rule.getToDate())) {
+                        factor *= rule.getMultiplier();
+                    }
+                }
+                case WEEKDAY -> {
+                    if (rule.getDaysOfWeek() != null && rule.getDaysOfWeek().contains(day.getDayOfWeek())) {
+                        factor *= rule.getMultiplier();
+                    }
+                }
+                case OCCUPANCY -> {
+                    if (occupancy >= rule.getMinOccupancy()
+                            && (tier == null || rule.getMinOccupancy() > tier.getMinOccupancy())) {
+                        tier = rule;
+                    }
+                }
+            }
+        }
+        return tier == null ? factor : factor * tier.getMultiplier();
+    }
+
+    private static void validate(PricingRule rule) {
+        if (rule == null || !StringUtils.hasText(rule.getHotelId())) {
+            throw new IllegalArgumentException("Hotel ID is required.");
+        }
+        if (rule.getType() == null) {
+            throw new IllegalArgumentException("Rule type is required.");
+        }
+        if (rule.getMultiplier() <= 0 || rule.getMultiplier() > MAX_MULTIPLIER) {
+            throw new IllegalArgumentException("Multiplier must be above 0 and at most " + MAX_MULTIPLIER + ".");
+        }
+        switch (rule.getType()) {
+            case SEASON -> {
+                if (rule.getFromDate() == null || rule.getToDate() == null || rule.getFromDate().isAfter(rule.getToDate())) {
+                    throw new IllegalArgumentException("A season needs 'fromDate' before or equal to 'toDate'.");
+                }
+            }
+            case WEEKDAY -> {
+                if (rule.getDaysOfWeek() == null || rule.getDaysOfWeek().isEmpty()) {
+                    throw new IllegalArgumentException("A weekday rule needs at least one day of the week.");
+                }
+            }
+            case OCCUPANCY -> {
+                if (rule.getMinOccupancy() <= 0 || rule.getMinOccupancy() > 1) {
+                    throw new IllegalArgumentException("'minOccupancy' must be above 0 and at most 1.");
+                }
+            }
+        }
+    }
+
+    private static String key(String hotelId, String roomType) {
+        return hotelId + ":" + typeKey(roomType);
+    }
+
+    // Same convention as the occupancy cubes: unknown type is ""
+    private static String typeKey(String roomType) {
+        return roomType == null ? "" : roomType;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    private record RoomRate(String hotelId, String roomType, String calendarKey, double basePrice) {
+        static RoomRate of(Room room) {
+            return new RoomRate(room.getHotelId(), typeKey(room.getType()),
+                    key(room.getHotelId(), room.getType()), room.getPricePerNight());
+        }
+    }
+
+    /**
+     * Factors and sold nights of one hotel and room type, index 0 = base day.
+     */
+    private static final class PriceCalendar {
+
+        private final String hotelId;
+        private final String roomType;
+        private final float[] factors;
+        private final int[] sold;
+        private int rooms;
+
+        PriceCalendar(String hotelId, String roomType, int days) {
+            this.hotelId = hotelId;
+            this.roomType = roomType;
+            this.factors = new float[days];
+            this.sold = new int[days];
+            Arrays.fill(factors, 1f);
+        }
+    }
+}
@@ -1,23 +1,30 @@
 package com.hotelbooking.service;
 
+import com.hotelbooking.dto.CursorPage;
 import com.hotelbooking.dto.ReviewRequest;
 import com.hotelbooking.entity.Hotel;
 import com.hotelbooking.entity.Review;
-import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.event.HotelChangedEvent;
 import com.hotelbooking.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class ReviewService {
 
     private final ReviewRepository reviewRepository;
-    private final HotelRepository hotelRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Review addReview(ReviewRequest request) {
         Review review = Review.builder()
@@ -35,12 +42,12 @@ public class ReviewService {
         List<Review> allReviews = reviewRepository.findByHotelId(request.getHotelId());
         double avg = allReviews.stream().mapToInt(Review::getRating).average().orElse(0.0);
 
-        // Fetch hotel and update average rating
-        Optional<Hotel> optionalHotel = hotelRepository.findById(request.getHotelId());
-        optionalHotel.ifPresent(hotel -> {
-            hotel.setAverageRating(avg);
-            hotelRepository.save(hotel);
-        });
+        // Update only the average rating, leaving the rest of the hotel document alone
+        Hotel hotel = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(request.getHotelId())),
+                new Update().set("averageRating", avg), FindAndModifyOptions.options().returnNew(true), Hotel.class);
+        if (hotel != null) {
+            eventPublisher.publishEvent(new HotelChangedEvent(hotel.getId(), hotel));
+        }
 
         return savedReview;
     }
@@ -49,6 +56,15 @@ public class ReviewService {
         return reviewRepository.findByHotelId(hotelId);
     }
 
+    // ✅ One keyset page of a hotel's reviews, ordered by id
+    public CursorPage<Review> getReviewsPage(String hotelId, String cursor, int size) {
+        String after = CursorPage.decode(cursor);
+        List<Review> reviews = after == null
+                ? reviewRepository.findByHotelId(hotelId, CursorPage.pageable(size))
+                : reviewRepository.findByHotelIdAndIdGreaterThan(hotelId, after, CursorPage.pageable(size));
+        return CursorPage.of(reviews, size, Review::getId);
+    }
+
     public double getAverageRating(String hotelId) {
         List<Review> reviews = reviewRepository.findByHotelId(hotelId);
         return reviews.stream().mapToInt(Review::getRating).average().orElse(0.0);
@@ -0,0 +1,392 @@
+package com.hotelbooking.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.RoomHold;
+import com.hotelbooking.enums.BookingStatus;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.RoomHoldRepository;
+
+/**
+ * In-process availability index: one epoch-day bitset per room, built from the
+ * Bookings collection and live checkout holds at startup and kept current by
+ * BookingService and HoldService.
+ * CANCELLED bookings and nights before the index base day are never indexed.
+ * Writes made on other instances never reach this one, so a taken night is
+ * only a hint: isBookable confirms it against the room-night ledger and
+ * reloads the room before turning a guest away, and RoomAvailabilityIndexJob
+ * rebuilds the whole index periodically.
+ */
+@Component
+public class RoomAvailabilityIndex implements CommandLineRunner {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomHoldRepository holdRepository;
+    @Autowired
+    private AvailabilityMatrixService availabilityMatrix;
+    @Autowired
+    private RoomNightLedger roomNightLedger;
+
+    private volatile Map<String, RoomCalendar> calendars = new ConcurrentHashMap<>();
+    private volatile Map<String, String> reservationRooms = new ConcurrentHashMap<>();
+    private volatile long baseDay = LocalDate.now().toEpochDay();
+
+    // Mutations share the lock. The write lock is only held to start a scan and to swap its
+    // result in, never while reading from the database.
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // One full scan (rebuild or verify) at a time
+    private final Object scanLock = new Object();
+    // Changes made while a full scan reads the database, replayed onto its result before the swap
+    private volatile List<Change> changesDuringScan;
+
+    @Override
+    public void run(String... args) {
+        Map<String, Object> stats = rebuild();
+        System.out.println("✅ Availability index built: " + stats);
+    }
+
+    // ✅ Reserve nights [fromDate, toDate] of a room for a booking (or any other reservation id)
+    public void reserve(String reservationId, String roomId, LocalDate fromDate, LocalDate toDate) {
+        rebuildLock.readLock().lock();
+        try {
+            String previousRoom = apply(new Change(reservationId, roomId, fromDate, toDate));
+            if (previousRoom != null && !previousRoom.equals(roomId)) {
+                availabilityMatrix.roomChanged(previousRoom);
+            }
+            availabilityMatrix.roomChanged(roomId);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // ✅ Drop every night held by a reservation
+    public void release(String reservationId) {
+        rebuildLock.readLock().lock();
+        try {
+            String roomId = apply(new Change(reservationId, null, null, null));
+            if (roomId != null) {
+                availabilityMatrix.roomChanged(roomId);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // ✅ Keep the index in line with the stored state of a booking
+    public void index(Booking booking) {
+        if (booking.getStatus() == BookingStatus.CANCELLED
+                || booking.getFromDate() == null || booking.getToDate() == null) {
+            release(booking.getId());
+        } else {
+            reserve(booking.getId(), booking.getRoomId(), booking.getFromDate(), booking.getToDate());
+        }
+    }
+
+    // ✅ True when no night in [fromDate, toDate] is taken
+    public boolean isFree(String roomId, LocalDate fromDate, LocalDate toDate) {
+        RoomCalendar calendar = calendars.get(roomId);
+        if (calendar == null) return true;
+
+        long base = baseDay;
+        long from = Math.max(fromDate.toEpochDay(), base);
+        long to = toDate.toEpochDay();
+        if (to < from) return true;
+
+        return calendar.isFree((int) (from - base), (int) (to - base));
+    }
+
+    // ✅ Gate for new bookings and holds: free in the index, or the index was stale for this room
+    public boolean isBookable(String roomId, LocalDate fromDate, LocalDate toDate) {
+        if (isFree(roomId, fromDate, toDate)) return true;
+        if (!roomNightLedger.isFree(roomId, fromDate, toDate)) return false;
+
+        // The ledger lacks bookings made before it existed, so the room is reloaded and asked again
+        refresh(roomId);
+        return isFree(roomId, fromDate, toDate);
+    }
+
+    // ✅ Reload the reservations of one room from the database
+    public void refresh(String roomId) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            RoomCalendar before = calendars.get(roomId);
+            long version = before == null ? 0 : before.version();
+            long base = baseDay;
+
+            List<Change> loaded = new ArrayList<>();
+            for (Booking booking : bookingRepository.findByRoomIdAndStatusNotAndToDateGreaterThanEqual(
+                    roomId, BookingStatus.CANCELLED, LocalDate.ofEpochDay(base))) {
+                if (booking.getFromDate() == null) continue;
+                loaded.add(new Change(booking.getId(), roomId, booking.getFromDate(), booking.getToDate()));
+            }
+            for (RoomHold hold : holdRepository.findByRoomIdAndExpiresAtAfter(roomId, Instant.now())) {
+                loaded.add(new Change(hold.getId(), roomId, hold.getFromDate(), hold.getToDate()));
+            }
+
+            rebuildLock.writeLock().lock();
+            try {
+                // A reservation made while the database was read may be missing from it, so only
+                // replace the room when nobody touched it in the meantime
+                RoomCalendar now = calendars.get(roomId);
+                if (now != before || (now != null && now.version() != version)) continue;
+
+                List<String> dropped = reservationRooms.entrySet().stream()
+                        .filter(entry -> roomId.equals(entry.getValue()))
+                        .map(Map.Entry::getKey)
+                        .toList();
+                dropped.forEach(id -> apply(new Change(id, null, null, null)));
+                calendars.remove(roomId);
+                loaded.forEach(this::apply);
+                availabilityMatrix.roomChanged(roomId);
+                return;
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+        }
+        System.out.println("❌ Availability index refresh of room " + roomId + " gave up: the room kept changing");
+    }
+
+    // ✅ Reload everything from the database and swap it in
+    public Map<String, Object> rebuild() {
+        synchronized (scanLock) {
+            long base = LocalDate.now().toEpochDay();
+            Map<String, RoomCalendar> freshCalendars = new ConcurrentHashMap<>();
+            Map<String, String> freshRooms = new ConcurrentHashMap<>();
+            List<Change> changes = startScan();
+            try {
+                load(base, freshCalendars, freshRooms);
+            } catch (RuntimeException e) {
+                changesDuringScan = null;
+                throw e;
+            }
+
+            rebuildLock.writeLock().lock();
+            try {
+                for (Change change : changes) {
+                    apply(base, freshCalendars, freshRooms, change);
+                }
+                changesDuringScan = null;
+                baseDay = base;
+                calendars = freshCalendars;
+                reservationRooms = freshRooms;
+                availabilityMatrix.invalidateAll();
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+            return stats();
+        }
+    }
+
+    // ✅ Compare the live index with the database without modifying it
+    public Map<String, Object> verify() {
+        synchronized (scanLock) {
+            Map<String, RoomCalendar> expected = new HashMap<>();
+            List<Change> changes = startScan();
+            Set<String> changed;
+            try {
+                load(baseDay, expected, new HashMap<>());
+            } finally {
+                changesDuringScan = null;
+                synchronized (changes) {
+                    changed = changes.stream().map(Change::reservationId).collect(Collectors.toSet());
+                }
+            }
+
+            // Reservations changed during the scan may be read either way, so they are not compared
+            int missing = 0;
+            int mismatched = 0;
+            int stale = 0;
+            for (Map.Entry<String, RoomCalendar> entry : expected.entrySet()) {
+                RoomCalendar live = calendars.get(entry.getKey());
+                Map<String, int[]> wanted = entry.getValue().snapshot();
+                Map<String, int[]> actual = live == null ? Map.of() : live.snapshot();
+                for (Map.Entry<String, int[]> reservation : wanted.entrySet()) {
+                    if (changed.contains(reservation.getKey())) continue;
+                    int[] range = actual.get(reservation.getKey());
+                    if (range == null) {
+                        missing++;
+                    } else if (range[0] != reservation.getValue()[0] || range[1] != reservation.getValue()[1]) {
+                        mismatched++;
+                    }
+                }
+            }
+            for (Map.Entry<String, RoomCalendar> entry : calendars.entrySet()) {
+                RoomCalendar shouldBe = expected.get(entry.getKey());
+                Set<String> wantedIds = shouldBe == null ? Set.of() : shouldBe.snapshot().keySet();
+                for (String id : entry.getValue().snapshot().keySet()) {
+                    if (!wantedIds.contains(id) && !changed.contains(id)) stale++;
+                }
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("consistent", missing == 0 && mismatched == 0 && stale == 0);
+            report.put("missing", missing);
+            report.put("mismatched", mismatched);
+            report.put("stale", stale);
+            return report;
+        }
+    }
+
+    // ✅ Size and approximate heap usage
+    public Map<String, Object> stats() {
+        long bytes = 0;
+        long reservations = 0;
+        for (RoomCalendar calendar : calendars.values()) {
+            bytes += calendar.footprintBytes();
+            reservations += calendar.size();
+        }
+        // reservation id -> room id lookup entries
+        bytes += reservationRooms.size() * 64L;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("baseDay", LocalDate.ofEpochDay(baseDay));
+        stats.put("rooms", calendars.size());
+        stats.put("reservations", reservations);
+        stats.put("footprintBytes", bytes);
+        return stats;
+    }
+
+    private void load(long base, Map<String, RoomCalendar> into, Map<String, String> rooms) {
+        try (Stream<Booking> bookings = bookingRepository
+                .findByStatusNotAndToDateGreaterThanEqual(BookingStatus.CANCELLED, LocalDate.ofEpochDay(base))) {
+            bookings.forEach(booking -> {
+                if (booking.getRoomId() == null || booking.getFromDate() == null) return;
+                load(base, into, rooms, booking.getId(), booking.getRoomId(), booking.getFromDate(), booking.getToDate());
+            });
+        }
+        try (Stream<RoomHold> holds = holdRepository.findByExpiresAtAfter(Instant.now())) {
+            holds.forEach(hold -> load(base, into, rooms, hold.getId(), hold.getRoomId(), hold.getFromDate(), hold.getToDate()));
+        }
+    }
+
+    private static void load(long base, Map<String, RoomCalendar> into, Map<String, String> rooms,
+                             String reservationId, String roomId, LocalDate fromDate, LocalDate toDate) {
+        long from = Math.max(fromDate.toEpochDay(), base);
+        long to = toDate.toEpochDay();
+        if (to < from) return;
+
+        into.computeIfAbsent(roomId, id -> new RoomCalendar())
+                .reserve(reservationId, (int) (from - base), (int) (to - base));
+        rooms.put(reservationId, roomId);
+    }
+
+    // Every mutation that finished before this returns is already visible to the scan's database reads
+    private List<Change> startScan() {
+        rebuildLock.writeLock().lock();
+        try {
+            List<Change> changes = Collections.synchronizedList(new ArrayList<>());
+            changesDuringScan = changes;
+            return changes;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    // Applies a change to the live index, and remembers it for a running scan
+    private String apply(Change change) {
+        List<Change> changes = changesDuringScan;
+        if (changes != null) {
+            changes.add(change);
+        }
+        return apply(baseDay, calendars, reservationRooms, change);
+    }
+
+    // Returns the room the reservation was on before, or null if it was not indexed
+    private static String apply(long base, Map<String, RoomCalendar> calendars, Map<String, String> rooms,
+                                Change change) {
+        String previousRoom = release(change.reservationId(), calendars, rooms);
+        if (change.roomId() != null) {
+            load(base, calendars, rooms, change.reservationId(), change.roomId(), change.fromDate(), change.toDate());
+        }
+        return previousRoom;
+    }
+
+    // Returns the room the reservation was on, or null if it was not indexed
+    private static String release(String reservationId, Map<String, RoomCalendar> calendars,
+                                  Map<String, String> rooms) {
+        String roomId = rooms.remove(reservationId);
+        if (roomId == null) return null;
+        RoomCalendar calendar = calendars.get(roomId);
+        if (calendar != null) {
+            calendar.release(reservationId);
+        }
+        return roomId;
+    }
+
+    // A reservation of [fromDate, toDate] on a room, or its release when roomId is null
+    private record Change(String reservationId, String roomId, LocalDate fromDate, LocalDate toDate) {
+    }
+
+    /**
+     * Nights of one room as bits relative to the index base day, plus the
+     * reservation ranges needed to clear them again.
+     */
+    private static final class RoomCalendar {
+
+        private final BitSet nights = new BitSet();
+        private final Map<String, int[]> reservations = new HashMap<>();
+        private long version;
+
+        synchronized void reserve(String id, int from, int to) {
+            version++;
+            reservations.put(id, new int[] { from, to });
+            nights.set(from, to + 1);
+        }
+
+        synchronized void release(String id) {
+            int[] range = reservations.remove(id);
+            if (range == null) return;
+            version++;
+
+            nights.clear(range[0], range[1] + 1);
+            // Legacy data may hold overlapping bookings, so restore whatever they still cover
+            for (int[] other : reservations.values()) {
+                if (other[0] <= range[1] && other[1] >= range[0]) {
+                    nights.set(Math.max(other[0], range[0]), Math.min(other[1], range[1]) + 1);
+                }
+            }
+        }
+
+        synchronized boolean isFree(int from, int to) {
+            int next = nights.nextSetBit(from);
+            return next < 0 || next > to;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized int size() {
+            return reservations.size();
+        }
+
+        synchronized Map<String, int[]> snapshot() {
+            return new HashMap<>(reservations);
+        }
+
+        synchronized long footprintBytes() {
+            // bitset words + per-reservation map entry, key and range array
+            return 48 + nights.size() / 8 + reservations.size() * 120L;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Picks up bookings, cancellations and holds made on other instances, and moves the index base day forward
+@Component
+public class RoomAvailabilityIndexJob {
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    @Scheduled(fixedDelayString = "${availability.index.rebuild-ms:300000}", initialDelayString = "${availability.index.rebuild-ms:300000}")
+    public void rebuild() {
+        try {
+            System.out.println("✅ Availability index rebuilt: " + availabilityIndex.rebuild());
+        } catch (Exception e) {
+            System.out.println("❌ Availability index rebuild failed: " + e.getMessage());
+        }
+    }
+}
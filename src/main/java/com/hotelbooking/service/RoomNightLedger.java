@@ -0,0 +1,233 @@
+package com.hotelbooking.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.RoomNight;
+import com.hotelbooking.enums.BookingStatus;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.RoomNightRepository;
+
+/**
+ * Room-night ledger: the database-enforced guard against double booking.
+ * A booking first claims one document per night; the unique _id makes a
+ * second claim on the same room and night fail, so no global lock is needed.
+ * Checkout holds claim nights the same way, with an expiry for the TTL index.
+ */
+@Service
+public class RoomNightLedger {
+
+    private static final int BACKFILL_BATCH = 1000;
+    private static final int SWEEP_BATCH = 1000;
+    // A booking is inserted right after its nights are claimed; older nights without one were left by a crash
+    private static final Duration ORPHAN_GRACE = Duration.ofMinutes(10);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    // ✅ Claim nights [fromDate, toDate] of a room, all or nothing
+    public void claim(String bookingId, String roomId, LocalDate fromDate, LocalDate toDate) {
+        claim(bookingId, roomId, fromDate, toDate, null);
+    }
+
+    // ✅ Claim nights for a booking, or for a hold that lapses at expiresAt
+    public void claim(String ownerId, String roomId, LocalDate fromDate, LocalDate toDate, Instant expiresAt) {
+        List<RoomNight> nights = nights(ownerId, roomId, fromDate, toDate);
+        nights.forEach(night -> night.setExpiresAt(expiresAt));
+        try {
+            insertAll(ownerId, nights);
+        } catch (BookingException e) {
+            // The TTL monitor runs about once a minute, so lapsed holds may still sit on these nights
+            if (removeLapsedHolds(nights) == 0) throw e;
+            insertAll(ownerId, nights);
+        }
+    }
+
+    // ✅ Hand the nights of a live hold over to a booking; false when the hold lapsed in the meantime
+    public boolean transfer(String holdId, String bookingId, long nights) {
+        long moved = mongoTemplate.updateMulti(
+                new Query(Criteria.where("bookingId").is(holdId).and("expiresAt").gt(Instant.now())),
+                new Update().set("bookingId", bookingId).set("claimedAt", Instant.now()).unset("expiresAt"),
+                RoomNight.class).getModifiedCount();
+        if (moved == nights) return true;
+
+        release(bookingId);
+        return false;
+    }
+
+    // ✅ Undo a transfer when the booking could not be stored: the nights lapse with the hold again
+    public void returnToHold(String bookingId, String holdId, Instant expiresAt) {
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("bookingId").is(bookingId)),
+                new Update().set("bookingId", holdId).set("expiresAt", expiresAt),
+                RoomNight.class);
+    }
+
+    // ✅ Claim the nights of several bookings in one insertMany, all or nothing
+    public void claim(List<Booking> bookings) {
+        List<RoomNight> nights = new ArrayList<>();
+        for (Booking booking : bookings) {
+            nights.addAll(nights(booking.getId(), booking.getRoomId(), booking.getFromDate(), booking.getToDate()));
+        }
+        try {
+            mongoTemplate.insert(nights, RoomNight.class);
+        } catch (DataIntegrityViolationException | BulkOperationException e) {
+            release(bookings.stream().map(Booking::getId).toList());
+            throw new BookingException("One or more rooms are already booked or held for the selected date range.");
+        }
+    }
+
+    // ✅ Give back every night held by a booking
+    public void release(String bookingId) {
+        roomNightRepository.deleteByBookingId(bookingId);
+    }
+
+    public void release(Collection<String> bookingIds) {
+        roomNightRepository.deleteByBookingIdIn(bookingIds);
+    }
+
+    // ✅ True when no night in [fromDate, toDate] of the room is claimed by a booking or a live hold
+    public boolean isFree(String roomId, LocalDate fromDate, LocalDate toDate) {
+        List<String> keys = nights(null, roomId, fromDate, toDate).stream().map(RoomNight::getId).toList();
+        return !mongoTemplate.exists(new Query(Criteria.where("_id").in(keys).orOperator(
+                        Criteria.where("expiresAt").is(null),
+                        Criteria.where("expiresAt").gt(Instant.now()))),
+                RoomNight.class);
+    }
+
+    // ✅ Write ledger entries for active bookings created before the ledger existed
+    public Map<String, Object> backfill() {
+        long bookings = 0;
+        long inserted = 0;
+        long skipped = 0;
+        List<RoomNight> batch = new ArrayList<>();
+
+        try (Stream<Booking> active = bookingRepository
+                .findByStatusNotAndToDateGreaterThanEqual(BookingStatus.CANCELLED, LocalDate.now())) {
+            for (Booking booking : (Iterable<Booking>) active::iterator) {
+                if (booking.getRoomId() == null || booking.getFromDate() == null) continue;
+                bookings++;
+                batch.addAll(nights(booking.getId(), booking.getRoomId(),
+                        booking.getFromDate().isBefore(LocalDate.now()) ? LocalDate.now() : booking.getFromDate(),
+                        booking.getToDate()));
+                if (batch.size() >= BACKFILL_BATCH) {
+                    int written = insertIgnoringDuplicates(batch);
+                    inserted += written;
+                    skipped += batch.size() - written;
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            int written = insertIgnoringDuplicates(batch);
+            inserted += written;
+            skipped += batch.size() - written;
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("bookings", bookings);
+        report.put("nightsInserted", inserted);
+        report.put("nightsSkipped", skipped);
+        return report;
+    }
+
+    // ✅ Drop nights already in the past, and booking nights whose booking was never stored or is gone
+    public Map<String, Object> sweep() {
+        long past = mongoTemplate.remove(
+                new Query(Criteria.where("night").lt(LocalDate.now())), RoomNight.class).getDeletedCount();
+
+        // Held nights are left to the TTL index; legacy nights have no claimedAt and count as settled
+        Instant settled = Instant.now().minus(ORPHAN_GRACE);
+        Criteria settledBookingNights = Criteria.where("expiresAt").is(null).orOperator(
+                Criteria.where("claimedAt").is(null),
+                Criteria.where("claimedAt").lt(settled));
+        List<String> owners = mongoTemplate.findDistinct(
+                new Query(settledBookingNights), "bookingId", RoomNight.class, String.class);
+
+        long orphanBookings = 0;
+        long orphanNights = 0;
+        for (int i = 0; i < owners.size(); i += SWEEP_BATCH) {
+            List<String> batch = owners.subList(i, Math.min(i + SWEEP_BATCH, owners.size()));
+            Query liveBookings = new Query(Criteria.where("_id").in(batch).and("status").ne(BookingStatus.CANCELLED));
+            liveBookings.fields().include("_id");
+            Set<String> live = mongoTemplate.find(liveBookings, Booking.class).stream()
+                    .map(Booking::getId)
+                    .collect(Collectors.toSet());
+
+            List<String> orphans = batch.stream().filter(id -> !live.contains(id)).toList();
+            if (orphans.isEmpty()) continue;
+            orphanBookings += orphans.size();
+            orphanNights += mongoTemplate.remove(
+                    new Query(Criteria.where("bookingId").in(orphans)).addCriteria(settledBookingNights),
+                    RoomNight.class).getDeletedCount();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("pastNightsRemoved", past);
+        report.put("orphanBookings", orphanBookings);
+        report.put("orphanNightsRemoved", orphanNights);
+        return report;
+    }
+
+    private void insertAll(String ownerId, List<RoomNight> nights) {
+        try {
+            mongoTemplate.insert(nights, RoomNight.class);
+        } catch (DataIntegrityViolationException | BulkOperationException e) {
+            // insertMany is ordered: nights before the clash were written and belong to us
+            release(ownerId);
+            throw new BookingException("Room is already booked or held for the selected date range.");
+        }
+    }
+
+    private long removeLapsedHolds(List<RoomNight> nights) {
+        List<String> keys = nights.stream().map(RoomNight::getId).toList();
+        return mongoTemplate.remove(
+                new Query(Criteria.where("_id").in(keys).and("expiresAt").lte(Instant.now())),
+                RoomNight.class).getDeletedCount();
+    }
+
+    private int insertIgnoringDuplicates(List<RoomNight> nights) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RoomNight.class);
+        bulk.insert(nights);
+        try {
+            return bulk.execute().getInsertedCount();
+        } catch (BulkOperationException e) {
+            // already claimed, or overlapping legacy bookings
+            return e.getResult().getInsertedCount();
+        }
+    }
+
+    private static List<RoomNight> nights(String bookingId, String roomId, LocalDate fromDate, LocalDate toDate) {
+        List<RoomNight> nights = new ArrayList<>();
+        Instant now = Instant.now();
+        for (LocalDate night = fromDate; !night.isAfter(toDate); night = night.plusDays(1)) {
+            nights.add(new RoomNight(RoomNight.key(roomId, night), roomId, night, bookingId, null, now));
+        }
+        return nights;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Frees nights left behind by a crash between the ledger claim and the booking insert, and prunes past nights
+@Component
+public class RoomNightSweepJob {
+
+    @Autowired
+    private RoomNightLedger roomNightLedger;
+
+    @Scheduled(cron = "${room-nights.sweep.cron:0 20 * * * *}")
+    public void sweep() {
+        try {
+            System.out.println("✅ Room night sweep: " + roomNightLedger.sweep());
+        } catch (Exception e) {
+            System.out.println("❌ Room night sweep failed: " + e.getMessage());
+        }
+    }
+}
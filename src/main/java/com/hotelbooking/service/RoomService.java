@@ -3,20 +3,19 @@ package com.hotelbooking.service;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.hotelbooking.dto.CursorPage;
 import com.hotelbooking.dto.RoomRequest;
-import com.hotelbooking.entity.Booking;
 import com.hotelbooking.entity.Room;
+import com.hotelbooking.event.RoomChangedEvent;
 import com.hotelbooking.exception.RoomException;
-import com.hotelbooking.repository.BookingRepository;
 import com.hotelbooking.repository.RoomRepository;
 import com.mongodb.DuplicateKeyException;
 
@@ -26,7 +25,10 @@ public class RoomService {
     @Autowired
     private RoomRepository roomRepository;
     @Autowired
-    private BookingRepository bookingRepository ;
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private HotelRoomLinks hotelRoomLinks;
+
     public Room addRoom(RoomRequest request) {
         validateRoomRequest(request);
         
@@ -41,29 +43,49 @@ public class RoomService {
         room.setAvailable(request.isAvailable());
         room.setHotelId(request.getHotelId());
 
+        Room saved;
         try {
-            return roomRepository.save(room);
+            saved = roomRepository.save(room);
         } catch (DuplicateKeyException e) {
 //            throw new ResponseStatusException(HttpStatus.CONFLICT, "Room number already exists (DB check)");
             throw new RuntimeException("Room number already exists. Please use a different number.");
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error saving room");
         }
+        // ✅ Listeners run after the save, so their failures are not reported as a failed save
+        return changed(saved);
     }
     public Room createRoom(Room room) {
+    	 Room saved;
     	 try {
-    	        return roomRepository.save(room);
+    	        saved = roomRepository.save(room);
     	    } catch (DuplicateKeyException e) {
     	        throw new RuntimeException("Room with number '" + room.getRoomNumber() + "' already exists.");
-    	    }    }
+    	    }
+    	 return changed(saved);
+    }
 
     public Room saveRoom(Room room) {
-        return roomRepository.save(room);
+        Room previous = room.getId() == null ? null : roomRepository.findById(room.getId()).orElse(null);
+        Room saved = roomRepository.save(room);
+        if (previous == null) {
+            return changed(saved);
+        }
+        return moved(previous.getHotelId(), previous.getPricePerNight(), saved);
     }
     public List<Room> getAllRooms() {
         return roomRepository.findAll();
     }
 
+    // ✅ One keyset page of rooms, ordered by id
+    public CursorPage<Room> getRoomsPage(String cursor, int size) {
+        String after = CursorPage.decode(cursor);
+        List<Room> rooms = after == null
+                ? roomRepository.findAllBy(CursorPage.pageable(size))
+                : roomRepository.findByIdGreaterThan(after, CursorPage.pageable(size));
+        return CursorPage.of(rooms, size, Room::getId);
+    }
+
     public List<Room> getRoomsByHotelId(String hotelId) {
         return roomRepository.findByHotelId(hotelId);
     }
@@ -89,6 +111,8 @@ public class RoomService {
         }
 
         Room room = roomOpt.get();
+        String previousHotelId = room.getHotelId();
+        double previousPrice = room.getPricePerNight();
         room.setRoomNumber(request.getRoomNumber());
         room.setType(request.getType());
         room.setPricePerNight(request.getPricePerNight());
@@ -96,7 +120,7 @@ public class RoomService {
         room.setImage(request.getImage());
         room.setHotelId(request.getHotelId());
 
-        return roomRepository.save(room);
+        return moved(previousHotelId, previousPrice, roomRepository.save(room));
     }
 
 
@@ -105,11 +129,39 @@ public class RoomService {
             throw new RoomException("Room ID cannot be null or blank");
         }
 
-        if (!roomRepository.existsById(id)) {
-            throw new RoomException("Room with ID '" + id + "' does not exist.");
-        }
+        Room room = roomRepository.findById(id)
+                .orElseThrow(() -> new RoomException("Room with ID '" + id + "' does not exist."));
 
         roomRepository.deleteById(id);
+        afterSave(() -> eventPublisher.publishEvent(new RoomChangedEvent(id, null)), "Room change event", id);
+        afterSave(() -> hotelRoomLinks.unlinked(room.getHotelId(), id), "Hotel link update", id);
+    }
+
+    // ✅ Tell in-memory views (price calendars) and the owning hotel about a newly stored room
+    private Room changed(Room saved) {
+        afterSave(() -> eventPublisher.publishEvent(new RoomChangedEvent(saved.getId(), saved)), "Room change event", saved.getId());
+        afterSave(() -> hotelRoomLinks.linked(saved), "Hotel link update", saved.getId());
+        return saved;
+    }
+
+    // ✅ Same for a room saved again: unlink it from a hotel it left, and let the link skip an unchanged price
+    private Room moved(String previousHotelId, double previousPrice, Room saved) {
+        afterSave(() -> eventPublisher.publishEvent(new RoomChangedEvent(saved.getId(), saved)), "Room change event", saved.getId());
+        afterSave(() -> hotelRoomLinks.linked(saved, previousPrice), "Hotel link update", saved.getId());
+        if (previousHotelId != null && !previousHotelId.equals(saved.getHotelId())) {
+            afterSave(() -> hotelRoomLinks.unlinked(previousHotelId, saved.getId()), "Hotel link update", saved.getId());
+        }
+        return saved;
+    }
+
+    // The room itself is stored either way, so a failing listener or link must not turn the save into an error;
+    // the nightly rebuilds of the views and the link repair catch up with what was missed here
+    private void afterSave(Runnable update, String what, String roomId) {
+        try {
+            update.run();
+        } catch (RuntimeException e) {
+            System.err.println("❌ " + what + " failed for room " + roomId + ": " + e.getMessage());
+        }
     }
 
     // ✅ Validate room request data
@@ -137,16 +189,8 @@ public class RoomService {
   
     }
     public List<Room> findAvailableRooms(String hotelId, LocalDate checkIn, LocalDate checkOut) {
-        List<Room> hotelRooms = roomRepository.findByHotelId(hotelId);
-        List<Booking> overlappingBookings = bookingRepository.findByHotelIdAndDateRange(hotelId, checkIn, checkOut);
-
-        Set<String> bookedRoomIds = overlappingBookings.stream()
-                .map(Booking::getRoomId)
-                .collect(Collectors.toSet());
-
-        return hotelRooms.stream()
-                .filter(room -> !bookedRoomIds.contains(room.getId()))
-                .collect(Collectors.toList());
+        // ✅ Single aggregation: rooms joined against overlapping bookings inside MongoDB
+        return roomRepository.findFreeRooms(hotelId, checkIn, checkOut);
     }
 
 }
@@ -1,6 +1,7 @@
 package com.hotelbooking.service;
 
 import com.hotelbooking.dto.AdminUpdateUserRequest;
+import com.hotelbooking.dto.CursorPage;
 import com.hotelbooking.dto.UserUpdateRequest;
 import com.hotelbooking.entity.User;
 import com.hotelbooking.enums.UserRole;
@@ -116,6 +117,15 @@ public User updateUserByAdmin(String userId, AdminUpdateUserRequest dto) {
         return userRepository.findAll();
     }
 
+    // ✅ One keyset page of users, ordered by id
+    public CursorPage<User> getUsersPage(String cursor, int size) {
+        String after = CursorPage.decode(cursor);
+        List<User> users = after == null
+                ? userRepository.findAllBy(CursorPage.pageable(size))
+                : userRepository.findByIdGreaterThan(after, CursorPage.pageable(size));
+        return CursorPage.of(users, size, User::getId);
+    }
+
     public void deleteUser(String userId) {
         if (!userRepository.existsById(userId)) {
             throw new RuntimeException("User not found with ID: " + userId);
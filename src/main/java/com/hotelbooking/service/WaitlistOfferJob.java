@@ -0,0 +1,25 @@
+package com.hotelbooking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Puts waitlist entries back in line when their offer was interrupted before the hold was placed
+@Component
+public class WaitlistOfferJob {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Scheduled(fixedDelayString = "${waitlist.offers.requeue-ms:300000}", initialDelayString = "${waitlist.offers.requeue-ms:300000}")
+    public void requeueStalledOffers() {
+        try {
+            long requeued = waitlistService.requeueStalledOffers();
+            if (requeued > 0) {
+                System.out.println("✅ Waitlist entries requeued after a stalled offer: " + requeued);
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Waitlist requeue failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.hotelbooking.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.hotelbooking.dto.HoldRequest;
+import com.hotelbooking.dto.WaitlistRequest;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.entity.RoomHold;
+import com.hotelbooking.entity.User;
+import com.hotelbooking.entity.WaitlistEntry;
+import com.hotelbooking.enums.WaitlistStatus;
+import com.hotelbooking.event.RoomNightsReleasedEvent;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceNotFoundException;
+import com.hotelbooking.repository.RoomRepository;
+import com.hotelbooking.repository.UserRepository;
+import com.hotelbooking.repository.WaitlistRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Waitlist for sold-out rooms. Nothing polls: when nights are released the
+ * {@link RoomNightsReleasedEvent} is matched against the waitlist indexes and
+ * the oldest entry that fits is offered a checkout hold at once. An offered
+ * entry leaves the WAITING state, so it is never matched again. Offers run on
+ * their own thread: placing a hold waits on ConcurrentLookups, so an offer
+ * running on that pool could starve the lookups it is waiting for.
+ */
+@Service
+public class WaitlistService {
+
+    private static final int OFFER_HOLD_MINUTES = 30;
+    private static final int MAX_CANDIDATES = 20;
+    private static final int MAX_ENTRIES_PER_USER = 10;
+    private static final int STALLED_OFFER_MINUTES = 5;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private HoldService holdService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ExecutorService offers = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-offer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // ✅ Join the waitlist for a room, or for any room of a type in a hotel
+    public WaitlistEntry join(WaitlistRequest request, String username) {
+        if (request == null) {
+            throw new BookingException("Waitlist request cannot be null.");
+        }
+        boolean byRoom = StringUtils.hasText(request.getRoomId());
+        if (!byRoom && !(StringUtils.hasText(request.getHotelId()) && StringUtils.hasText(request.getRoomType()))) {
+            throw new BookingException("Either roomId, or hotelId together with roomType, is required.");
+        }
+        if (request.getFromDate() == null || request.getToDate() == null) {
+            throw new BookingException("Both 'fromDate' and 'toDate' must be provided.");
+        }
+        if (request.getFromDate().isBefore(LocalDate.now())) {
+            throw new BookingException("Cannot wait for past dates.");
+        }
+        if (request.getFromDate().isAfter(request.getToDate())) {
+            throw new BookingException("'fromDate' must be before or equal to 'toDate'.");
+        }
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new BookingException("User not found"));
+        if (waitlistRepository.countByUsername(username) >= MAX_ENTRIES_PER_USER) {
+            throw new BookingException("Too many waitlist entries. Leave one first.");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        if (byRoom) {
+            Room room = roomRepository.findById(request.getRoomId())
+                    .orElseThrow(() -> new BookingException("Room not found"));
+            entry.setRoomId(room.getId());
+            entry.setHotelId(room.getHotelId());
+        } else {
+            entry.setHotelId(request.getHotelId());
+            entry.setRoomType(request.getRoomType());
+        }
+        entry.setUserId(user.getId());
+        entry.setUsername(user.getUsername());
+        entry.setFromDate(request.getFromDate());
+        entry.setToDate(request.getToDate());
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setCreatedAt(LocalDateTime.now());
+        entry.setExpireAt(request.getFromDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return waitlistRepository.insert(entry);
+    }
+
+    public List<WaitlistEntry> getEntries(String username) {
+        return waitlistRepository.findByUsernameOrderByCreatedAtDesc(username);
+    }
+
+    public void leave(String id, String username) {
+        WaitlistEntry entry = waitlistRepository.findById(id)
+                .filter(found -> found.getUsername().equals(username))
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found with ID: " + id));
+        waitlistRepository.delete(entry);
+    }
+
+    // ✅ Nights came free: offer them off the publisher's thread so the cancel request returns at once
+    @EventListener
+    public void onNightsReleased(RoomNightsReleasedEvent event) {
+        offers.execute(() -> {
+            try {
+                offer(event);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Waitlist offer failed for room " + event.roomId() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        offers.shutdownNow();
+    }
+
+    private void offer(RoomNightsReleasedEvent event) {
+        LocalDate from = event.fromDate().isBefore(LocalDate.now()) ? LocalDate.now() : event.fromDate();
+        if (from.isAfter(event.toDate())) return;
+
+        Room room = roomRepository.findById(event.roomId()).orElse(null);
+        if (room == null || !room.isAvailable()) return;
+
+        // Oldest first across both kinds of entry
+        Pageable oldest = PageRequest.of(0, MAX_CANDIDATES, Sort.by("createdAt"));
+        List<WaitlistEntry> candidates = new ArrayList<>(
+                waitlistRepository.findWaitingForRoom(room.getId(), from, event.toDate(), oldest));
+        if (StringUtils.hasText(room.getType())) {
+            candidates.addAll(waitlistRepository.findWaitingForRoomType(
+                    room.getHotelId(), room.getType(), from, event.toDate(), oldest));
+        }
+        candidates.sort(Comparator.comparing(WaitlistEntry::getCreatedAt));
+
+        for (WaitlistEntry candidate : candidates) {
+            if (candidate.getFromDate().isBefore(LocalDate.now())) continue;
+            WaitlistEntry entry = take(candidate.getId());
+            if (entry == null) continue; // offered by a concurrent release
+
+            RoomHold hold;
+            try {
+                hold = holdService.placeHold(holdRequest(entry, room), entry.getUsername());
+            } catch (BookingException e) {
+                // Some other night of this entry's stay is still taken: put it back and try the next one
+                putBack(entry.getId());
+                continue;
+            } catch (RuntimeException e) {
+                // Database or lookup failure: put it back before giving up, or nothing would offer it again
+                putBack(entry.getId());
+                throw e;
+            }
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(entry.getId())),
+                    new Update().set("holdId", hold.getId())
+                            .set("offeredRoomId", room.getId())
+                            .set("offeredAt", LocalDateTime.now()),
+                    WaitlistEntry.class);
+            return;
+        }
+    }
+
+    // ✅ Entries taken for an offer that never got its hold, e.g. the node died while placing it
+    public long requeueStalledOffers() {
+        return mongoTemplate.updateMulti(
+                new Query(Criteria.where("status").is(WaitlistStatus.OFFERED)
+                        .and("holdId").is(null)
+                        .and("offeredAt").lt(LocalDateTime.now().minusMinutes(STALLED_OFFER_MINUTES))),
+                new Update().set("status", WaitlistStatus.WAITING).unset("offeredAt"),
+                WaitlistEntry.class).getModifiedCount();
+    }
+
+    private void putBack(String id) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)),
+                new Update().set("status", WaitlistStatus.WAITING).unset("offeredAt"), WaitlistEntry.class);
+    }
+
+    // Atomically move an entry from WAITING to OFFERED so only one release can offer it
+    private WaitlistEntry take(String id) {
+        return mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(id).and("status").is(WaitlistStatus.WAITING)),
+                new Update().set("status", WaitlistStatus.OFFERED).set("offeredAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                WaitlistEntry.class);
+    }
+
+    private static HoldRequest holdRequest(WaitlistEntry entry, Room room) {
+        HoldRequest request = new HoldRequest();
+        request.setRoomId(room.getId());
+        request.setFromDate(entry.getFromDate());
+        request.setToDate(entry.getToDate());
+        request.setMinutes(OFFER_HOLD_MINUTES);
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package com.hotelbooking.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+
+class CursorPageTests {
+
+    @Test
+    void encodedIdsRoundTripAndStayUrlSafe() {
+        for (String id : List.of("66f1c2a9e4b0a1b2c3d4e5f6", "0b7c9f0e-3a51-4d5e-9c1a-2f6e8d4b7a10", "ä/+?=&", "x")) {
+            String cursor = CursorPage.encode(id);
+            assertThat(cursor).matches("[A-Za-z0-9_-]+");
+            assertThat(CursorPage.decode(cursor)).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertThat(CursorPage.decode(null)).isNull();
+        assertThat(CursorPage.decode("")).isNull();
+        assertThat(CursorPage.decode("  ")).isNull();
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> CursorPage.decode("not a cursor!")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void extraRowBecomesTheNextCursor() {
+        List<String> rows = IntStream.rangeClosed(1, 11).mapToObj(i -> "id" + i).toList();
+
+        CursorPage<String> page = CursorPage.of(rows, 10, Function.identity());
+
+        assertThat(page.getItems()).hasSize(10).last().isEqualTo("id10");
+        assertThat(CursorPage.decode(page.getNextCursor())).isEqualTo("id10");
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorPage<String> page = CursorPage.of(List.of("a", "b"), 10, Function.identity());
+
+        assertThat(page.getItems()).containsExactly("a", "b");
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.toResponse().getHeaders().containsKey(CursorPage.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    @Test
+    void cursorTravelsInHeader() {
+        ResponseEntity<List<String>> response = CursorPage.of(List.of("a", "b", "c"), 2, Function.identity()).toResponse();
+
+        assertThat(response.getBody()).containsExactly("a", "b");
+        assertThat(response.getHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER)).isEqualTo(CursorPage.encode("b"));
+    }
+
+    @Test
+    void pageSizeIsClampedAndAsksForOneMoreRow() {
+        Pageable pageable = CursorPage.pageable(CursorPage.MAX_SIZE + 500);
+
+        assertThat(pageable.getPageSize()).isEqualTo(CursorPage.MAX_SIZE + 1);
+        assertThat(CursorPage.pageable(0).getPageSize()).isEqualTo(2);
+        assertThat(pageable.getSort().getOrderFor("id")).isNotNull();
+    }
+}
@@ -0,0 +1,110 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.event.RoomChangedEvent;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.RoomHoldRepository;
+import com.hotelbooking.repository.RoomRepository;
+
+class AvailabilityMatrixServiceTests {
+
+    private static final LocalDate WINDOW = LocalDate.of(2030, 3, 1);
+
+    @Test
+    void emptyRoomIsOneFreeRun() {
+        assertThat(AvailabilityMatrixService.runs(new BitSet(), 31)).containsExactly(31);
+    }
+
+    @Test
+    void runsAlternateStartingWithFree() {
+        BitSet taken = new BitSet();
+        taken.set(0, 3);
+        taken.set(10, 12);
+
+        assertThat(AvailabilityMatrixService.runs(taken, 14)).containsExactly(0, 3, 7, 2, 2);
+    }
+
+    @Test
+    void takenTailEndsTheRuns() {
+        BitSet taken = new BitSet();
+        taken.set(5, 7);
+
+        assertThat(AvailabilityMatrixService.runs(taken, 7)).containsExactly(5, 2);
+    }
+
+    @Test
+    void runsAddUpToTheWindowEvenWithBitsBeyondIt() {
+        BitSet taken = new BitSet();
+        taken.set(4, 40);
+
+        int[] runs = AvailabilityMatrixService.runs(taken, 10);
+
+        assertThat(runs).containsExactly(4, 6);
+    }
+
+    @Test
+    void markClipsStaysToTheWindow() {
+        BitSet[] taken = { new BitSet() };
+
+        AvailabilityMatrixService.mark(taken, 0, WINDOW, 10, WINDOW.minusDays(5), WINDOW.plusDays(1));
+        AvailabilityMatrixService.mark(taken, 0, WINDOW, 10, WINDOW.plusDays(8), WINDOW.plusDays(30));
+
+        assertThat(taken[0].stream().toArray()).containsExactly(0, 1, 8, 9);
+    }
+
+    @Test
+    void markIgnoresStaysOutsideTheWindowAndUnknownRooms() {
+        BitSet[] taken = { new BitSet() };
+
+        AvailabilityMatrixService.mark(taken, 0, WINDOW, 10, WINDOW.minusDays(9), WINDOW.minusDays(1));
+        AvailabilityMatrixService.mark(taken, 0, WINDOW, 10, WINDOW.plusDays(10), WINDOW.plusDays(12));
+        AvailabilityMatrixService.mark(taken, null, WINDOW, 10, WINDOW, WINDOW.plusDays(2));
+        AvailabilityMatrixService.mark(taken, 0, WINDOW, 10, null, WINDOW.plusDays(2));
+
+        assertThat(taken[0].isEmpty()).isTrue();
+    }
+
+    @Test
+    void newRoomInvalidatesItsHotelOnLaterReservations() {
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        when(roomRepository.findByHotelId("hotel-1")).thenReturn(List.of(room("room-1", "hotel-1")));
+        AvailabilityMatrixService service = new AvailabilityMatrixService();
+        ReflectionTestUtils.setField(service, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(service, "bookingRepository", mock(BookingRepository.class));
+        ReflectionTestUtils.setField(service, "holdRepository", mock(RoomHoldRepository.class));
+
+        service.matrix("hotel-1", WINDOW, 7, null);
+        service.matrix("hotel-1", WINDOW, 7, null);
+        verify(roomRepository, times(1)).findByHotelId("hotel-1");
+
+        service.onRoomChanged(new RoomChangedEvent("room-2", room("room-2", "hotel-1")));
+        service.matrix("hotel-1", WINDOW, 7, null);
+        verify(roomRepository, times(2)).findByHotelId("hotel-1");
+
+        // a booking on the new room must reach the grid before any rebuild has seen the room
+        service.roomChanged("room-2");
+        service.matrix("hotel-1", WINDOW, 7, null);
+        verify(roomRepository, times(3)).findByHotelId("hotel-1");
+    }
+
+    private static Room room(String id, String hotelId) {
+        Room room = new Room();
+        room.setId(id);
+        room.setHotelId(hotelId);
+        room.setRoomNumber(id);
+        return room;
+    }
+}
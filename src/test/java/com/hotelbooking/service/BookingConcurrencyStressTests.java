@@ -0,0 +1,159 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.hotelbooking.dto.BookingRequest;
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.entity.RoomNight;
+import com.hotelbooking.entity.User;
+import com.hotelbooking.enums.UserRole;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomNightRepository;
+import com.hotelbooking.repository.RoomRepository;
+import com.hotelbooking.repository.UserRepository;
+
+// Many guests racing for the same few rooms: every accepted booking must own its nights alone
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class BookingConcurrencyStressTests {
+
+    private static final int ROOMS = 3;
+    private static final int GUESTS = 16;
+    private static final int ATTEMPTS = 400;
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+    @Autowired
+    private RoomNightLedger roomNightLedger;
+
+    @Test
+    void parallelBookingsNeverShareANight() throws Exception {
+        Hotel hotel = new Hotel();
+        hotel.setHotelNumber("STRESS-1");
+        hotel.setName("Stress Hotel");
+        hotel.setLocation("Testville");
+        hotel.setAvailable(true);
+        hotel = hotelRepository.save(hotel);
+
+        List<String> roomIds = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            Room room = new Room();
+            room.setRoomNumber("STRESS-" + i);
+            room.setHotelId(hotel.getId());
+            room.setType("Double");
+            room.setPricePerNight(100);
+            roomIds.add(roomRepository.save(room).getId());
+        }
+
+        User user = new User();
+        user.setUsername("stress-guest");
+        user.setEmail("stress-guest@example.com");
+        user.setRole(UserRole.USER);
+        userRepository.save(user);
+
+        LocalDate start = LocalDate.now().plusDays(30);
+        ConcurrentLinkedQueue<Booking> accepted = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        ExecutorService guests = Executors.newFixedThreadPool(GUESTS);
+        CountDownLatch go = new CountDownLatch(1);
+        for (int i = 0; i < ATTEMPTS; i++) {
+            Random random = new Random(i);
+            BookingRequest request = new BookingRequest();
+            request.setRoomId(roomIds.get(random.nextInt(ROOMS)));
+            request.setFromDate(start.plusDays(random.nextInt(20)));
+            request.setToDate(request.getFromDate().plusDays(random.nextInt(4)));
+            guests.execute(() -> {
+                try {
+                    go.await();
+                    accepted.add(bookingService.createBooking(request, "stress-guest"));
+                } catch (BookingException e) {
+                    rejected.incrementAndGet();
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        go.countDown();
+        guests.shutdown();
+        assertThat(guests.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(unexpected).isEmpty();
+        assertThat(accepted.size() + rejected.get()).isEqualTo(ATTEMPTS);
+        assertThat(accepted).isNotEmpty();
+        assertThat(rejected.get()).isPositive();
+
+        Map<String, List<Booking>> byRoom = accepted.stream().collect(Collectors.groupingBy(Booking::getRoomId));
+        long nights = 0;
+        for (List<Booking> bookings : byRoom.values()) {
+            for (int a = 0; a < bookings.size(); a++) {
+                Booking first = bookings.get(a);
+                nights += first.getToDate().toEpochDay() - first.getFromDate().toEpochDay() + 1;
+                for (int b = a + 1; b < bookings.size(); b++) {
+                    Booking second = bookings.get(b);
+                    assertThat(first.getFromDate().isAfter(second.getToDate()) || second.getFromDate().isAfter(first.getToDate()))
+                            .as("%s and %s overlap", first.getId(), second.getId())
+                            .isTrue();
+                }
+            }
+        }
+        // no rejected attempt left a claimed night behind
+        assertThat(roomNightRepository.count()).isEqualTo(nights);
+
+        // a claim whose booking insert never happened, and a night already in the past
+        LocalDate free = start.plusDays(40);
+        roomNightRepository.save(new RoomNight(RoomNight.key(roomIds.get(0), free), roomIds.get(0), free,
+                "crashed-before-insert", null, Instant.now().minus(Duration.ofHours(1))));
+        LocalDate past = LocalDate.now().minusDays(3);
+        roomNightRepository.save(new RoomNight(RoomNight.key(roomIds.get(0), past), roomIds.get(0), past,
+                accepted.peek().getId(), null, Instant.now()));
+
+        Map<String, Object> swept = roomNightLedger.sweep();
+        assertThat(swept).containsEntry("pastNightsRemoved", 1L).containsEntry("orphanNightsRemoved", 1L);
+        assertThat(roomNightRepository.count()).isEqualTo(nights);
+    }
+}
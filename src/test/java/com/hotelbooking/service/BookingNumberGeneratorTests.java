@@ -0,0 +1,106 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hotelbooking.entity.Counter;
+
+class BookingNumberGeneratorTests {
+
+    private static final long SHORT_CODES = 1L << 30;
+
+    @Test
+    void shortCodesAreSixCharactersAndNeverCollide() {
+        Set<String> seen = new HashSet<>();
+        for (long sequence = 0; sequence < 300_000; sequence++) {
+            assertShortCode(sequence, seen);
+        }
+        // the top of the 30-bit range scrambles just as cleanly
+        for (long sequence = SHORT_CODES - 100_000; sequence < SHORT_CODES; sequence++) {
+            assertShortCode(sequence, seen);
+        }
+    }
+
+    @Test
+    void sequencesBeyondThirtyBitsGetLongerCodes() {
+        assertThat(BookingNumberGenerator.encode(SHORT_CODES)).hasSize(7);
+        assertThat(BookingNumberGenerator.encode(SHORT_CODES + 1)).isNotEqualTo(BookingNumberGenerator.encode(SHORT_CODES));
+        assertThat(BookingNumberGenerator.encode(1L << 35)).hasSize(8);
+    }
+
+    @Test
+    void consecutiveNumbersDoNotLookConsecutive() {
+        assertThat(BookingNumberGenerator.encode(1).substring(0, 5))
+                .isNotEqualTo(BookingNumberGenerator.encode(2).substring(0, 5));
+    }
+
+    @Test
+    void concurrentNodesNeverHandOutTheSameNumber() throws Exception {
+        // one shared counter document, advanced atomically like $inc
+        AtomicLong seq = new AtomicLong();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Counter.class)))
+                .thenAnswer(invocation -> {
+                    long blockSize = ((Number) invocation.getArgument(1, Update.class).getUpdateObject()
+                            .get("$inc", Document.class).get("seq")).longValue();
+                    return new Counter("bookingNumber", seq.addAndGet(blockSize));
+                });
+
+        List<BookingNumberGenerator> nodes = List.of(generator(mongoTemplate), generator(mongoTemplate), generator(mongoTemplate));
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        ExecutorService threads = Executors.newFixedThreadPool(12);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < 12; t++) {
+                BookingNumberGenerator node = nodes.get(t % nodes.size());
+                tasks.add(() -> {
+                    int duplicates = 0;
+                    for (int i = 0; i < 2_000; i++) {
+                        if (!issued.add(node.next())) duplicates++;
+                    }
+                    return duplicates;
+                });
+            }
+            for (Future<Integer> result : threads.invokeAll(tasks)) {
+                assertThat(result.get()).isZero();
+            }
+        } finally {
+            threads.shutdown();
+        }
+        assertThat(issued).hasSize(12 * 2_000).allMatch(number -> number.matches("BK-[0-9A-HJKMNP-TV-Z]{6}"));
+    }
+
+    private static void assertShortCode(long sequence, Set<String> seen) {
+        String code = BookingNumberGenerator.encode(sequence);
+        assertThat(code).hasSize(6).matches("[0-9A-HJKMNP-TV-Z]+");
+        assertThat(seen.add(code)).as("duplicate code %s for %d", code, sequence).isTrue();
+    }
+
+    private static BookingNumberGenerator generator(MongoTemplate mongoTemplate) {
+        BookingNumberGenerator generator = new BookingNumberGenerator();
+        ReflectionTestUtils.setField(generator, "mongoTemplate", mongoTemplate);
+        return generator;
+    }
+}
@@ -0,0 +1,240 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hotelbooking.dto.GroupBookingRequest;
+import com.hotelbooking.dto.PriceQuote;
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.entity.RoomNight;
+import com.hotelbooking.entity.User;
+import com.hotelbooking.enums.BookingStatus;
+import com.hotelbooking.event.RoomNightsReleasedEvent;
+import com.hotelbooking.exception.BookingException;
+import com.hotelbooking.exception.ResourceConflictException;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomNightRepository;
+import com.hotelbooking.repository.RoomRepository;
+
+class BookingServiceTests {
+
+    private static final LocalDate STAY = LocalDate.now().plusDays(20);
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final RoomNightLedger roomNightLedger = mock(RoomNightLedger.class);
+    private final RoomAvailabilityIndex availabilityIndex = mock(RoomAvailabilityIndex.class);
+    private final OccupancyCubeService occupancyCubes = mock(OccupancyCubeService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final HotelRepository hotelRepository = mock(HotelRepository.class);
+    private final BookingNumberGenerator bookingNumberGenerator = mock(BookingNumberGenerator.class);
+    private final PriceCalendarService priceCalendar = mock(PriceCalendarService.class);
+    private BookingService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BookingService();
+        ReflectionTestUtils.setField(service, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "roomNightLedger", roomNightLedger);
+        ReflectionTestUtils.setField(service, "availabilityIndex", availabilityIndex);
+        ReflectionTestUtils.setField(service, "occupancyCubes", occupancyCubes);
+        ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(service, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(service, "hotelRepository", hotelRepository);
+        ReflectionTestUtils.setField(service, "bookingNumberGenerator", bookingNumberGenerator);
+        ReflectionTestUtils.setField(service, "priceCalendar", priceCalendar);
+    }
+
+    @Test
+    void cancelOnlyMatchesTheVersionThatWasRead() {
+        Booking read = booking("b1", BookingStatus.PENDING, 3L);
+        Booking stored = booking("b1", BookingStatus.CANCELLED, 4L);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Booking.class)))
+                .thenReturn(stored);
+
+        assertThat(service.cancelBooking(read)).isSameAs(stored);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Booking.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("_id", "b1").containsEntry("version", 3L);
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class)).containsEntry("version", 1);
+
+        verify(roomNightLedger).release("b1");
+        verify(availabilityIndex).index(stored);
+        verify(occupancyCubes).cancelled(stored);
+        verify(eventPublisher).publishEvent(new RoomNightsReleasedEvent("room-1", STAY, STAY.plusDays(2)));
+    }
+
+    @Test
+    void cancelWithAStaleVersionIsRejectedAndFreesNothing() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Booking.class)))
+                .thenReturn(null);
+        // someone else changed the booking after it was read
+        when(bookingRepository.findById("b1")).thenReturn(Optional.of(booking("b1", BookingStatus.PENDING, 4L)));
+
+        assertThatThrownBy(() -> service.cancelBooking(booking("b1", BookingStatus.PENDING, 3L)))
+                .isInstanceOf(ResourceConflictException.class)
+                .hasMessageContaining("modified concurrently");
+
+        verifyNoInteractions(roomNightLedger, availabilityIndex, occupancyCubes, eventPublisher);
+    }
+
+    @Test
+    void cancellingTwiceIsAConflict() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Booking.class)))
+                .thenReturn(null);
+        when(bookingRepository.findById("b1")).thenReturn(Optional.of(booking("b1", BookingStatus.CANCELLED, 4L)));
+
+        assertThatThrownBy(() -> service.cancelBooking(booking("b1", BookingStatus.PENDING, 3L)))
+                .isInstanceOf(ResourceConflictException.class)
+                .hasMessageContaining("already cancelled");
+
+        verifyNoInteractions(roomNightLedger, availabilityIndex, occupancyCubes, eventPublisher);
+    }
+
+    @Test
+    void groupBookingIsAllOrNothingWhenOneRoomClashesInTheLedger() {
+        RoomNightRepository roomNightRepository = groupOfThree();
+        // a concurrent booking took one night of r2 after the index was checked
+        when(mongoTemplate.insert(anyList(), eq(RoomNight.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error: r2"));
+
+        assertThatThrownBy(() -> service.createGroupBooking(groupRequest("r1", "r2", "r3"), guest()))
+                .isInstanceOf(BookingException.class)
+                .hasMessageContaining("already booked or held");
+
+        // every night of every room went in one write, and every booking's nights were given back
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RoomNight>> nights = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(nights.capture(), eq(RoomNight.class));
+        assertThat(nights.getValue()).hasSize(9);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> released = ArgumentCaptor.forClass(Collection.class);
+        verify(roomNightRepository).deleteByBookingIdIn(released.capture());
+        assertThat(released.getValue()).containsExactlyInAnyOrderElementsOf(
+                nights.getValue().stream().map(RoomNight::getBookingId).distinct().toList());
+        assertThat(released.getValue()).hasSize(3);
+
+        verify(bookingRepository, never()).insert(anyList());
+        verify(availabilityIndex, never()).index(any(Booking.class));
+        verifyNoInteractions(occupancyCubes);
+    }
+
+    @Test
+    void groupBookingStopsBeforeClaimingWhenTheIndexSeesAClash() {
+        groupOfThree();
+        when(availabilityIndex.isBookable("r2", STAY, STAY.plusDays(2))).thenReturn(false);
+
+        assertThatThrownBy(() -> service.createGroupBooking(groupRequest("r1", "r2", "r3"), guest()))
+                .isInstanceOf(BookingException.class)
+                .hasMessageContaining("Room 102 is already booked");
+
+        verify(mongoTemplate, never()).insert(anyList(), eq(RoomNight.class));
+        verifyNoInteractions(bookingNumberGenerator, bookingRepository, occupancyCubes);
+    }
+
+    @Test
+    void groupBookingInsertsEveryRoomUnderOneGroup() {
+        groupOfThree();
+        when(bookingRepository.insert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Booking> saved = service.createGroupBooking(groupRequest("r1", "r2", "r3"), guest());
+
+        assertThat(saved).extracting(Booking::getRoomId).containsExactly("r1", "r2", "r3");
+        assertThat(saved).extracting(Booking::getGroupId).containsOnly(saved.get(0).getGroupId()).doesNotContainNull();
+        verify(mongoTemplate).insert(anyList(), eq(RoomNight.class));
+        verify(occupancyCubes).booked(saved);
+    }
+
+    // Rooms r1..r3 (numbers 101..103) of one hotel, all free in the index, claimed through a real ledger
+    private RoomNightRepository groupOfThree() {
+        RoomNightRepository roomNightRepository = mock(RoomNightRepository.class);
+        RoomNightLedger ledger = new RoomNightLedger();
+        ReflectionTestUtils.setField(ledger, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(ledger, "roomNightRepository", roomNightRepository);
+        ReflectionTestUtils.setField(service, "roomNightLedger", ledger);
+
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Room room = new Room();
+            room.setId("r" + i);
+            room.setRoomNumber("10" + i);
+            room.setHotelId("hotel-1");
+            room.setType("Double");
+            room.setPricePerNight(100);
+            rooms.add(room);
+        }
+        Hotel hotel = new Hotel();
+        hotel.setId("hotel-1");
+        hotel.setName("Harbour View");
+
+        when(roomRepository.findAllById(any())).thenReturn(rooms);
+        when(hotelRepository.findAllById(any())).thenReturn(List.of(hotel));
+        when(availabilityIndex.isBookable(any(), any(), any())).thenReturn(true);
+        AtomicInteger numbers = new AtomicInteger();
+        when(bookingNumberGenerator.next()).thenAnswer(invocation -> "BK-" + numbers.incrementAndGet());
+        when(priceCalendar.quote(any(Room.class), any(), any()))
+                .thenReturn(new PriceQuote(null, STAY, STAY.plusDays(2), List.of(100.0, 100.0, 100.0), 300, 100));
+        return roomNightRepository;
+    }
+
+    private static GroupBookingRequest groupRequest(String... roomIds) {
+        GroupBookingRequest request = new GroupBookingRequest();
+        request.setRoomIds(List.of(roomIds));
+        request.setFromDate(STAY);
+        request.setToDate(STAY.plusDays(2));
+        return request;
+    }
+
+    private static User guest() {
+        User user = new User();
+        user.setId("u1");
+        user.setUsername("guest");
+        return user;
+    }
+
+    private static Booking booking(String id, BookingStatus status, Long version) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setRoomId("room-1");
+        booking.setHotelId("hotel-1");
+        booking.setFromDate(STAY);
+        booking.setToDate(STAY.plusDays(2));
+        booking.setStatus(status);
+        booking.setVersion(version);
+        return booking;
+    }
+}
@@ -0,0 +1,140 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class HoldExpiryWheelTests {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final HoldExpiryWheel wheel = new HoldExpiryWheel();
+    private final List<String> fired = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        wheel.init(START);
+    }
+
+    @Test
+    void firesOnceTheDeadlineHasPassed() {
+        wheel.schedule("hold-1", at(4_500), () -> fired.add("hold-1"));
+
+        wheel.advance(START + 4_999);
+        assertThat(fired).isEmpty();
+        assertThat(wheel.pending()).isEqualTo(1);
+
+        wheel.advance(START + 5_000);
+        assertThat(fired).containsExactly("hold-1");
+        assertThat(wheel.pending()).isZero();
+
+        wheel.advance(START + 20_000);
+        assertThat(fired).containsExactly("hold-1");
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        wheel.advance(START + 3_000);
+        wheel.schedule("late", at(-60_000), () -> fired.add("late"));
+
+        wheel.advance(START + 4_000);
+        assertThat(fired).containsExactly("late");
+    }
+
+    @Test
+    void cancelledTimerNeverFires() {
+        wheel.schedule("hold-1", at(2_000), () -> fired.add("hold-1"));
+
+        assertThat(wheel.cancel("hold-1")).isTrue();
+        assertThat(wheel.cancel("hold-1")).isFalse();
+        wheel.advance(START + 10_000);
+
+        assertThat(fired).isEmpty();
+        assertThat(wheel.cancel("never-scheduled")).isFalse();
+    }
+
+    @Test
+    void schedulingAgainReplacesTheEarlierTimer() {
+        wheel.schedule("hold-1", at(2_000), () -> fired.add("first"));
+        wheel.schedule("hold-1", at(6_000), () -> fired.add("second"));
+
+        wheel.advance(START + 5_000);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(START + 6_000);
+        assertThat(fired).containsExactly("second");
+    }
+
+    @Test
+    void deadlinesBeyondOneLapWaitForTheirTurn() {
+        // 512 one-second slots: this lands in the same slot as a 3 s deadline, one lap later
+        wheel.schedule("far", at(515_000), () -> fired.add("far"));
+        wheel.schedule("near", at(3_000), () -> fired.add("near"));
+
+        wheel.advance(START + 3_000);
+        assertThat(fired).containsExactly("near");
+
+        wheel.advance(START + 514_999);
+        assertThat(fired).containsExactly("near");
+
+        wheel.advance(START + 515_000);
+        assertThat(fired).containsExactly("near", "far");
+    }
+
+    @Test
+    void delayedTickCatchesUpOnEverySlot() {
+        for (int second = 1; second <= 10; second++) {
+            String id = "hold-" + second;
+            wheel.schedule(id, at(second * 1_000L), () -> fired.add(id));
+        }
+
+        wheel.advance(START + 10_000);
+
+        assertThat(fired).hasSize(10).startsWith("hold-1").endsWith("hold-10");
+    }
+
+    @Test
+    void failingActionDoesNotStopTheOthers() {
+        wheel.schedule("broken", at(1_000), () -> {
+            throw new IllegalStateException("boom");
+        });
+        wheel.schedule("fine", at(1_000), () -> fired.add("fine"));
+
+        wheel.advance(START + 1_000);
+
+        assertThat(fired).containsExactly("fine");
+    }
+
+    @Test
+    void actionsMayScheduleFurtherTimers() {
+        wheel.schedule("first", at(1_000), () -> {
+            fired.add("first");
+            wheel.schedule("second", at(2_000), () -> fired.add("second"));
+        });
+
+        wheel.advance(START + 1_000);
+        wheel.advance(START + 2_000);
+
+        assertThat(fired).containsExactly("first", "second");
+    }
+
+    @Test
+    void startingTheClockAgainKeepsOneLap() {
+        wheel.init(START);
+
+        assertThat((List<?>) ReflectionTestUtils.getField(wheel, "slots")).hasSize(512);
+        wheel.schedule("hold-1", at(1_000), () -> fired.add("hold-1"));
+        wheel.advance(START + 1_000);
+        assertThat(fired).containsExactly("hold-1");
+    }
+
+    private static Instant at(long millisAfterStart) {
+        return Instant.ofEpochMilli(START + millisAfterStart);
+    }
+}
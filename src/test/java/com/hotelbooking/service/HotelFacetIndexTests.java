@@ -0,0 +1,188 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hotelbooking.dto.FacetedSearchResponse;
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.event.HotelChangedEvent;
+import com.hotelbooking.event.RoomChangedEvent;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomRepository;
+
+class HotelFacetIndexTests {
+
+    private HotelFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = index(
+                List.of(
+                        hotel("h1", "Paris", 80, 4.6),
+                        hotel("h2", "paris", 150, 3.2),
+                        hotel("h3", "Rome", 90, 4.1),
+                        hotel("h4", "Rome", 600, 0)),
+                List.of(
+                        room("r1", "h1", "Double"),
+                        room("r2", "h1", "Suite"),
+                        room("r3", "h2", "double"),
+                        room("r4", "h3", "Single"),
+                        room("r5", "h4", "Suite")));
+    }
+
+    @Test
+    void bandsHaveFixedEdges() {
+        assertThat(HotelFacetIndex.priceBand(0)).isEqualTo("0-50");
+        assertThat(HotelFacetIndex.priceBand(49.99)).isEqualTo("0-50");
+        assertThat(HotelFacetIndex.priceBand(50)).isEqualTo("50-100");
+        assertThat(HotelFacetIndex.priceBand(499)).isEqualTo("200-500");
+        assertThat(HotelFacetIndex.priceBand(500)).isEqualTo("500+");
+
+        assertThat(HotelFacetIndex.ratingBand(0)).isEqualTo("unrated");
+        assertThat(HotelFacetIndex.ratingBand(1)).isEqualTo("1-2");
+        assertThat(HotelFacetIndex.ratingBand(3.99)).isEqualTo("3-4");
+        assertThat(HotelFacetIndex.ratingBand(5)).isEqualTo("4-5");
+    }
+
+    @Test
+    void noSelectionCountsEveryHotel() {
+        FacetedSearchResponse response = search(Map.of());
+
+        assertThat(response.getTotal()).isEqualTo(4);
+        Map<String, Map<String, Integer>> facets = response.getFacets();
+        // values are keyed case-insensitively: "Paris" and "paris" are one location
+        assertThat(facets.get(HotelFacetIndex.LOCATION).values()).containsExactly(2, 2);
+        assertThat(facets.get(HotelFacetIndex.PRICE))
+                .containsEntry("50-100", 2).containsEntry("100-200", 1).containsEntry("500+", 1);
+        assertThat(facets.get(HotelFacetIndex.RATING))
+                .containsEntry("4-5", 2).containsEntry("3-4", 1).containsEntry("unrated", 1);
+        assertThat(facets.get(HotelFacetIndex.ROOM_TYPE).values()).containsExactly(2, 1, 2);
+    }
+
+    @Test
+    void eachFacetIsCountedAgainstTheOtherSelections() {
+        FacetedSearchResponse response = search(Map.of(HotelFacetIndex.LOCATION, List.of("PARIS")));
+
+        assertThat(ids(response)).containsExactly("h1", "h2");
+        // the location facet ignores its own selection, so Rome still shows what it would add
+        assertThat(response.getFacets().get(HotelFacetIndex.LOCATION)).containsEntry("Rome", 2);
+        assertThat(response.getFacets().get(HotelFacetIndex.PRICE))
+                .containsEntry("50-100", 1).containsEntry("100-200", 1).containsEntry("500+", 0);
+    }
+
+    @Test
+    void valuesOfOneFacetAreOredAndFacetsAnded() {
+        FacetedSearchResponse anyPrice = search(Map.of(HotelFacetIndex.PRICE, List.of("50-100", "500+")));
+        assertThat(ids(anyPrice)).containsExactly("h1", "h3", "h4");
+
+        FacetedSearchResponse both = search(Map.of(
+                HotelFacetIndex.PRICE, List.of("50-100", "500+"),
+                HotelFacetIndex.ROOM_TYPE, List.of("suite")));
+        assertThat(ids(both)).containsExactly("h1", "h4");
+    }
+
+    @Test
+    void unknownValuesMatchNothing() {
+        assertThat(search(Map.of(HotelFacetIndex.LOCATION, List.of("Atlantis"))).getTotal()).isZero();
+    }
+
+    @Test
+    void unavailableHotelsAreNeitherListedNorCounted() {
+        Hotel closed = hotel("h1", "Paris", 80, 4.6);
+        closed.setAvailable(false);
+        index.onHotelChanged(new HotelChangedEvent("h1", closed));
+
+        FacetedSearchResponse response = search(Map.of());
+        assertThat(ids(response)).doesNotContain("h1");
+        assertThat(response.getFacets().get(HotelFacetIndex.RATING)).containsEntry("4-5", 1);
+    }
+
+    @Test
+    void roomTypeStaysUntilTheLastRoomOfThatTypeGoes() {
+        index.onRoomChanged(new RoomChangedEvent("r6", room("r6", "h3", "Suite")));
+        assertThat(ids(search(Map.of(HotelFacetIndex.ROOM_TYPE, List.of("Suite"))))).containsExactly("h1", "h3", "h4");
+
+        index.onRoomChanged(new RoomChangedEvent("r6", room("r6", "h3", "Double")));
+        index.onRoomChanged(new RoomChangedEvent("r7", room("r7", "h3", "Double")));
+        assertThat(ids(search(Map.of(HotelFacetIndex.ROOM_TYPE, List.of("Suite"))))).containsExactly("h1", "h4");
+
+        index.onRoomChanged(new RoomChangedEvent("r6", null));
+        assertThat(ids(search(Map.of(HotelFacetIndex.ROOM_TYPE, List.of("Double"))))).containsExactly("h1", "h3", "h2");
+        index.onRoomChanged(new RoomChangedEvent("r7", null));
+        assertThat(ids(search(Map.of(HotelFacetIndex.ROOM_TYPE, List.of("Double"))))).containsExactly("h1", "h2");
+    }
+
+    @Test
+    void removedHotelLeavesEveryFacetAndItsOrdinalIsReused() {
+        index.onHotelChanged(new HotelChangedEvent("h1", null));
+
+        FacetedSearchResponse response = search(Map.of());
+        assertThat(ids(response)).containsExactly("h3", "h2", "h4");
+        assertThat(response.getFacets().get(HotelFacetIndex.ROOM_TYPE).values()).containsExactly(1, 1, 1);
+
+        // a room event for the removed hotel does not bring it back
+        index.onRoomChanged(new RoomChangedEvent("r1", null));
+        index.onHotelChanged(new HotelChangedEvent("h5", hotel("h5", "Oslo", 120, 2.5)));
+        assertThat(search(Map.of()).getTotal()).isEqualTo(4);
+        assertThat(search(Map.of(HotelFacetIndex.ROOM_TYPE, List.of("Double"))).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void resultsAreRatedBestFirstAndPaged() {
+        assertThat(ids(search(Map.of()))).containsExactly("h1", "h3", "h2", "h4");
+
+        FacetedSearchResponse second = index.search(Map.of(), 1, 3);
+        assertThat(ids(second)).containsExactly("h4");
+        assertThat(second.getTotal()).isEqualTo(4);
+        assertThat(ids(index.search(Map.of(), 5, 3))).isEmpty();
+    }
+
+    private FacetedSearchResponse search(Map<String, List<String>> selected) {
+        return index.search(selected, 0, 10);
+    }
+
+    private static HotelFacetIndex index(List<Hotel> hotels, List<Room> rooms) {
+        HotelRepository hotelRepository = mock(HotelRepository.class);
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        when(hotelRepository.findAll()).thenReturn(new ArrayList<>(hotels));
+        when(roomRepository.findAll()).thenReturn(new ArrayList<>(rooms));
+        HotelFacetIndex index = new HotelFacetIndex();
+        ReflectionTestUtils.setField(index, "hotelRepository", hotelRepository);
+        ReflectionTestUtils.setField(index, "roomRepository", roomRepository);
+        index.rebuild();
+        return index;
+    }
+
+    private static Hotel hotel(String id, String location, double price, double rating) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setName("Hotel " + id);
+        hotel.setLocation(location);
+        hotel.setPricePerNight(price);
+        hotel.setAverageRating(rating);
+        hotel.setAvailable(true);
+        return hotel;
+    }
+
+    private static Room room(String id, String hotelId, String type) {
+        Room room = new Room();
+        room.setId(id);
+        room.setHotelId(hotelId);
+        room.setType(type);
+        return room;
+    }
+
+    private static List<String> ids(FacetedSearchResponse response) {
+        return response.getItems().stream().map(Hotel::getId).toList();
+    }
+}
@@ -0,0 +1,157 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hotelbooking.dto.NearbyHotel;
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.event.HotelChangedEvent;
+
+class HotelGeoIndexTests {
+
+    @Test
+    void distancesAreGreatCircle() {
+        // Paris to London, about 344 km
+        assertThat(HotelGeoIndex.distanceKm(48.8566, 2.3522, 51.5074, -0.1278)).isCloseTo(343.5, within(1.0));
+        assertThat(HotelGeoIndex.distanceKm(10, 20, 10, 20)).isZero();
+        // a degree of longitude shrinks towards the poles
+        assertThat(HotelGeoIndex.distanceKm(60, 0, 60, 1)).isCloseTo(55.6, within(0.5));
+    }
+
+    @Test
+    void cellsCoverEveryHotelInsideTheCircle() {
+        // hotels scattered around a city, queried from random points with radii spanning many cells
+        Random random = new Random(42);
+        List<Hotel> hotels = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            hotels.add(hotel("h" + i, 45 + random.nextDouble() * 2, 7 + random.nextDouble() * 3));
+        }
+        HotelGeoIndex index = index(hotels);
+
+        for (int query = 0; query < 200; query++) {
+            double lat = 45 + random.nextDouble() * 2;
+            double lng = 7 + random.nextDouble() * 3;
+            double radiusKm = 0.5 + random.nextDouble() * 60;
+            assertThat(ids(index.within(lat, lng, radiusKm))).isEqualTo(bruteForce(hotels, lat, lng, radiusKm));
+        }
+    }
+
+    @Test
+    void cellEdgesAreNotMissed() {
+        // one cell is 360 / 8192 degrees of longitude and 180 / 4096 of latitude
+        double lngCell = 360.0 / 8192;
+        double latCell = 180.0 / 4096;
+        double edgeLng = 4010 * lngCell - 180;
+        double edgeLat = 2500 * latCell - 90;
+        List<Hotel> hotels = List.of(
+                hotel("just-before", edgeLat - 1e-9, edgeLng - 1e-9),
+                hotel("on-edge", edgeLat, edgeLng),
+                hotel("just-after", edgeLat + 1e-9, edgeLng + 1e-9));
+        HotelGeoIndex index = index(hotels);
+
+        assertThat(ids(index.within(edgeLat, edgeLng, 0.01))).containsExactlyInAnyOrder("just-before", "on-edge", "just-after");
+    }
+
+    @Test
+    void circlesWrapAroundTheAntimeridian() {
+        List<Hotel> hotels = List.of(
+                hotel("east", -17.0, 179.98),
+                hotel("west", -17.0, -179.98),
+                hotel("far", -17.0, 170.0));
+        HotelGeoIndex index = index(hotels);
+
+        assertThat(ids(index.within(-17.0, 179.99, 10))).containsExactlyInAnyOrder("east", "west");
+        assertThat(ids(index.within(-17.0, -179.99, 10))).containsExactlyInAnyOrder("east", "west");
+    }
+
+    @Test
+    void wideSearchesGoToTheDatabase() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Hotel.class))).thenReturn(List.of(), List.of(hotel("faraway", 40, 20)));
+        HotelGeoIndex index = new HotelGeoIndex();
+        ReflectionTestUtils.setField(index, "mongoTemplate", mongoTemplate);
+        index.rebuild();
+
+        List<NearbyHotel> found = index.within(42, 20, HotelGeoIndex.MAX_RADIUS_KM);
+
+        assertThat(ids(found)).containsExactly("faraway");
+        assertThat(found.get(0).getDistanceKm()).isCloseTo(222.4, within(0.5));
+        verify(mongoTemplate).find(argThat(HotelGeoIndexTests::isNearSphere), eq(Hotel.class));
+    }
+
+    @Test
+    void circlesOverAPoleGoToTheDatabase() {
+        // every longitude is in range there, far more cells than a search may visit
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Hotel.class))).thenReturn(List.of(), List.of(hotel("polar", 89.95, 120)));
+        HotelGeoIndex index = new HotelGeoIndex();
+        ReflectionTestUtils.setField(index, "mongoTemplate", mongoTemplate);
+        index.rebuild();
+
+        assertThat(ids(index.within(89.99, 45, 15))).containsExactly("polar");
+        verify(mongoTemplate).find(argThat(HotelGeoIndexTests::isNearSphere), eq(Hotel.class));
+    }
+
+    @Test
+    void movedAndRemovedHotelsLeaveTheirCells() {
+        HotelGeoIndex index = index(List.of(hotel("h1", 45, 7)));
+
+        index.onHotelChanged(new HotelChangedEvent("h1", hotel("h1", 46, 8)));
+        assertThat(index.within(45, 7, 5)).isEmpty();
+        assertThat(ids(index.within(46, 8, 5))).containsExactly("h1");
+
+        index.onHotelChanged(new HotelChangedEvent("h1", null));
+        assertThat(index.within(46, 8, 5)).isEmpty();
+    }
+
+    private static HotelGeoIndex index(List<Hotel> hotels) {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Hotel.class))).thenReturn(new ArrayList<>(hotels));
+        HotelGeoIndex index = new HotelGeoIndex();
+        ReflectionTestUtils.setField(index, "mongoTemplate", mongoTemplate);
+        index.rebuild();
+        return index;
+    }
+
+    private static Hotel hotel(String id, double latitude, double longitude) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setCoordinates(new GeoJsonPoint(longitude, latitude));
+        return hotel;
+    }
+
+    private static boolean isNearSphere(Query query) {
+        Object coordinates = query.getQueryObject().get("coordinates");
+        return coordinates instanceof Document criteria && criteria.containsKey("$nearSphere");
+    }
+
+    private static Set<String> bruteForce(List<Hotel> hotels, double lat, double lng, double radiusKm) {
+        return hotels.stream()
+                .filter(hotel -> HotelGeoIndex.distanceKm(lat, lng, hotel.getCoordinates().getY(), hotel.getCoordinates().getX()) <= radiusKm)
+                .map(Hotel::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> ids(List<NearbyHotel> found) {
+        return found.stream().map(nearby -> nearby.getHotel().getId()).collect(Collectors.toSet());
+    }
+}
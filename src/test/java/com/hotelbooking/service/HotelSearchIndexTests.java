@@ -0,0 +1,140 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hotelbooking.entity.Hotel;
+import com.hotelbooking.event.HotelChangedEvent;
+import com.hotelbooking.repository.HotelRepository;
+
+class HotelSearchIndexTests {
+
+    @Test
+    void foldingDropsAccentsCaseAndPunctuation() {
+        assertThat(HotelSearchIndex.fold("Hôtel  Éden—Café!")).isEqualTo("hotel eden cafe");
+        assertThat(HotelSearchIndex.fold("Straße")).isEqualTo("strasse");
+        assertThat(HotelSearchIndex.fold("ﬁve ＳＴＡＲ")).isEqualTo("five star");
+        assertThat(HotelSearchIndex.fold("São Paulo, Brazil")).isEqualTo("sao paulo brazil");
+        assertThat(HotelSearchIndex.fold("  ")).isEmpty();
+        assertThat(HotelSearchIndex.fold(null)).isEmpty();
+    }
+
+    @Test
+    void queriesIgnoreAccentsAndCase() {
+        HotelSearchIndex index = index(hotel("1", "Hôtel Mëridien", "Zürich"));
+
+        assertThat(names(index.search("hotel meridien", 10))).containsExactly("Hôtel Mëridien");
+        assertThat(names(index.search("ZURICH", 10))).containsExactly("Hôtel Mëridien");
+    }
+
+    @Test
+    void nameMatchesRankAboveLocationMatchesAndPrefixesAboveInfixes() {
+        HotelSearchIndex index = index(
+                hotel("1", "Seaview Lodge", "Grand Rapids"),
+                hotel("2", "The Grandview", "Oslo"),
+                hotel("3", "Grand Hotel", "Rome"),
+                hotel("4", "Grand", "Lisbon"),
+                hotel("5", "Old Grand Inn", "Porto"),
+                hotel("6", "Legrand Suites", "Nice"));
+
+        assertThat(names(index.search("grand", 10)))
+                .containsExactly("Grand", "Grand Hotel", "Old Grand Inn", "The Grandview", "Legrand Suites", "Seaview Lodge");
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        HotelSearchIndex index = index(
+                hotel("1", "Harbour Hotel", "Cape Town"),
+                hotel("2", "Harbour Inn", "Sydney"));
+
+        assertThat(names(index.search("harbour cape", 10))).containsExactly("Harbour Hotel");
+        assertThat(index.search("harbour berlin", 10)).isEmpty();
+        assertThat(index.search("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void shortWordsOnlyMatchWordStarts() {
+        HotelSearchIndex index = index(
+                hotel("1", "Park Inn", "Berlin"),
+                hotel("2", "Spa Resort", "Bath"));
+
+        assertThat(names(index.search("pa", 10))).containsExactly("Park Inn");
+        assertThat(names(index.search("spa", 10))).containsExactly("Spa Resort");
+    }
+
+    @Test
+    void trigramHitsAreVerifiedAgainstTheText() {
+        // "nanaban" carries every trigram of "banana" (ban, ana, nan) but not the word
+        HotelSearchIndex index = index(
+                hotel("1", "Banana Bay", "Goa"),
+                hotel("2", "Nanaban Hut", "Goa"));
+
+        assertThat(names(index.search("banana", 10))).containsExactly("Banana Bay");
+        assertThat(names(index.search("nanaban", 10))).containsExactly("Nanaban Hut");
+    }
+
+    @Test
+    void ratingBreaksTiesAndLimitApplies() {
+        Hotel low = hotel("1", "Lake House", "Como");
+        Hotel high = hotel("2", "Lake Hotel", "Como");
+        high.setAverageRating(4.5);
+        HotelSearchIndex index = index(low, high, hotel("3", "Lake Inn", "Como"));
+
+        assertThat(names(index.search("lake", 1))).containsExactly("Lake Hotel");
+        assertThat(index.search("lake", 0)).hasSize(1);
+        assertThat(index.search("lake", 500)).hasSize(3);
+    }
+
+    @Test
+    void locationSearchMatchesInsideTheFoldedText() {
+        HotelSearchIndex index = index(
+                hotel("1", "A", "São Paulo, Brazil"),
+                hotel("2", "B", "Paulista"),
+                hotel("3", "C", "Rio"));
+
+        assertThat(names(index.byLocation("sao paulo"))).containsExactly("A");
+        assertThat(names(index.byLocation("PAUL"))).containsExactlyInAnyOrder("A", "B");
+        assertThat(names(index.byLocation("io"))).containsExactly("C");
+    }
+
+    @Test
+    void changesReplaceAndRemoveEntries() {
+        HotelSearchIndex index = index(hotel("1", "Old Name", "Paris"));
+
+        index.onHotelChanged(new HotelChangedEvent("1", hotel("1", "New Name", "Paris")));
+        assertThat(index.search("old", 10)).isEmpty();
+        assertThat(names(index.search("new", 10))).containsExactly("New Name");
+
+        index.onHotelChanged(new HotelChangedEvent("1", null));
+        assertThat(index.search("new", 10)).isEmpty();
+        assertThat(index.byLocation("paris")).isEmpty();
+    }
+
+    private static HotelSearchIndex index(Hotel... hotels) {
+        HotelRepository hotelRepository = mock(HotelRepository.class);
+        when(hotelRepository.findAll()).thenReturn(new ArrayList<>(List.of(hotels)));
+        HotelSearchIndex index = new HotelSearchIndex();
+        ReflectionTestUtils.setField(index, "hotelRepository", hotelRepository);
+        index.rebuild();
+        return index;
+    }
+
+    private static Hotel hotel(String id, String name, String location) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setName(name);
+        hotel.setLocation(location);
+        return hotel;
+    }
+
+    private static List<String> names(List<Hotel> hotels) {
+        return hotels.stream().map(Hotel::getName).toList();
+    }
+}
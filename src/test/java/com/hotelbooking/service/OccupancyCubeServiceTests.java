@@ -0,0 +1,174 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hotelbooking.dto.OccupancyReport;
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.entity.OccupancyCube;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.enums.BookingStatus;
+import com.hotelbooking.event.RoomChangedEvent;
+import com.hotelbooking.repository.RoomRepository;
+
+class OccupancyCubeServiceTests {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 1);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final PriceCalendarService priceCalendar = mock(PriceCalendarService.class);
+    // cube id -> nightsSold, revenue, cancellations, as the live $inc upserts leave them
+    private final Map<String, double[]> cubes = new HashMap<>();
+    private OccupancyCubeService service;
+
+    @BeforeEach
+    void setUp() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(OccupancyCube.class))).thenReturn(bulk);
+        when(bulk.upsert(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+            String id = invocation.getArgument(0, Query.class).getQueryObject().getString("_id");
+            Document inc = invocation.getArgument(1, Update.class).getUpdateObject().get("$inc", Document.class);
+            // updates run on two threads
+            synchronized (cubes) {
+                double[] cube = cubes.computeIfAbsent(id, key -> new double[3]);
+                cube[0] += ((Number) inc.get("nightsSold")).doubleValue();
+                cube[1] += ((Number) inc.get("revenue")).doubleValue();
+                cube[2] += ((Number) inc.get("cancellations")).doubleValue();
+            }
+            return bulk;
+        });
+
+        service = new OccupancyCubeService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(service, "priceCalendar", priceCalendar);
+    }
+
+    @Test
+    void liveUpdatesEndWhereARebuildWould() {
+        Booking kept = booking("kept", "Double", DAY, DAY.plusDays(1), List.of(100.0, 120.0));
+        Booking cancelled = booking("cancelled", "Double", DAY.plusDays(1), DAY.plusDays(2), List.of(90.0, 90.0));
+        Booking deleted = booking("deleted", "Suite", DAY, DAY, List.of(300.0));
+        Booking cancelledThenDeleted = booking("cancelled-then-deleted", "Double", DAY, DAY, List.of(80.0));
+
+        service.booked(List.of(kept, cancelled, deleted, cancelledThenDeleted));
+        service.cancelled(cancel(cancelled));
+        service.deleted(deleted);
+        service.cancelled(cancel(cancelledThenDeleted));
+        service.deleted(cancel(cancelledThenDeleted));
+        service.shutdown();
+
+        // only the bookings still stored count in a rebuild
+        assertThat(nonEmpty(cubes)).containsOnlyKeys(rebuilt(List.of(kept, cancel(cancelled))).keySet());
+        rebuilt(List.of(kept, cancel(cancelled))).forEach((id, expected) -> assertThat(cubes.get(id)).as(id).containsExactly(expected));
+    }
+
+    @Test
+    void cancellingOrDeletingMovesPricingOnlyWhenNightsChange() {
+        Booking booking = booking("b1", "Double", DAY, DAY.plusDays(2), List.of(100.0, 100.0, 100.0));
+
+        service.booked(booking);
+        service.cancelled(cancel(booking));
+        service.deleted(cancel(booking));
+        service.shutdown();
+
+        verify(priceCalendar).sold("hotel-1", "Double", DAY, DAY.plusDays(2), 1);
+        verify(priceCalendar).sold("hotel-1", "Double", DAY, DAY.plusDays(2), -1);
+        verify(priceCalendar, times(2)).sold(any(), any(), any(), any(), any(Integer.class));
+    }
+
+    @Test
+    void reportCountsRoomsFromTheCacheUntilARoomChanges() {
+        when(roomRepository.findByHotelId("hotel-1")).thenReturn(List.of(room("Double"), room("Double"), room("Suite")));
+        when(mongoTemplate.find(any(Query.class), eq(OccupancyCube.class))).thenReturn(List.of(
+                new OccupancyCube("c1", "hotel-1", "Double", DAY, 2, 200, 0),
+                new OccupancyCube("c2", "hotel-1", "Suite", DAY, 1, 300, 1)));
+
+        OccupancyReport all = service.report("hotel-1", DAY, DAY.plusDays(1), null);
+        assertThat(all.getRooms()).isEqualTo(3);
+        assertThat(all.getNightsSold()).isEqualTo(3);
+        assertThat(all.getCancellations()).isEqualTo(1);
+        assertThat(all.getOccupancyRate()).isEqualTo(0.5);
+        assertThat(service.report("hotel-1", DAY, DAY, "Double").getRooms()).isEqualTo(2);
+        verify(roomRepository, times(1)).findByHotelId("hotel-1");
+
+        service.onRoomChanged(new RoomChangedEvent("r4", room("Suite")));
+        service.report("hotel-1", DAY, DAY, "Suite");
+        verify(roomRepository, times(2)).findByHotelId("hotel-1");
+    }
+
+    // What the rebuild pipeline derives from stored bookings
+    private static Map<String, double[]> rebuilt(List<Booking> stored) {
+        Map<String, double[]> expected = new HashMap<>();
+        for (Booking booking : stored) {
+            int index = 0;
+            for (LocalDate night = booking.getFromDate(); !night.isAfter(booking.getToDate()); night = night.plusDays(1)) {
+                double[] cube = expected.computeIfAbsent(
+                        OccupancyCube.key(booking.getHotelId(), booking.getRoomType(), night), key -> new double[3]);
+                if (booking.getStatus() == BookingStatus.CANCELLED) {
+                    cube[2]++;
+                } else {
+                    cube[0]++;
+                    cube[1] += booking.getNightlyPrices().get(index);
+                }
+                index++;
+            }
+        }
+        return expected;
+    }
+
+    // Cubes brought back to zero stay as documents; the rebuild simply has no row for them
+    private static Map<String, double[]> nonEmpty(Map<String, double[]> cubes) {
+        Map<String, double[]> nonEmpty = new HashMap<>(cubes);
+        nonEmpty.values().removeIf(cube -> cube[0] == 0 && cube[1] == 0 && cube[2] == 0);
+        return nonEmpty;
+    }
+
+    private static Booking cancel(Booking booking) {
+        Booking cancelled = booking(booking.getId(), booking.getRoomType(), booking.getFromDate(), booking.getToDate(),
+                new ArrayList<>(booking.getNightlyPrices()));
+        cancelled.setStatus(BookingStatus.CANCELLED);
+        return cancelled;
+    }
+
+    private static Booking booking(String id, String roomType, LocalDate fromDate, LocalDate toDate, List<Double> prices) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setHotelId("hotel-1");
+        booking.setRoomId("room-" + id);
+        booking.setRoomType(roomType);
+        booking.setFromDate(fromDate);
+        booking.setToDate(toDate);
+        booking.setNightlyPrices(prices);
+        booking.setStatus(BookingStatus.PENDING);
+        return booking;
+    }
+
+    private static Room room(String type) {
+        Room room = new Room();
+        room.setHotelId("hotel-1");
+        room.setType(type);
+        return room;
+    }
+}
@@ -0,0 +1,154 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hotelbooking.dto.PriceQuote;
+import com.hotelbooking.entity.OccupancyCube;
+import com.hotelbooking.entity.PricingRule;
+import com.hotelbooking.entity.Room;
+import com.hotelbooking.enums.PricingRuleType;
+import com.hotelbooking.repository.PricingRuleRepository;
+import com.hotelbooking.repository.RoomRepository;
+
+class PriceCalendarServiceTests {
+
+    // A Friday to Sunday stay well inside the pricing window
+    private static final LocalDate FRIDAY = LocalDate.now().plusDays(30).with(TemporalAdjusters.nextOrSame(DayOfWeek.FRIDAY));
+    private static final LocalDate SATURDAY = FRIDAY.plusDays(1);
+    private static final LocalDate SUNDAY = FRIDAY.plusDays(2);
+
+    private final PricingRuleRepository pricingRuleRepository = mock(PricingRuleRepository.class);
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final List<PricingRule> rules = new ArrayList<>();
+    private final List<OccupancyCube> cubes = new ArrayList<>();
+    private PriceCalendarService service;
+
+    @BeforeEach
+    void setUp() {
+        // four Double rooms at 100, so each sold night is a quarter of the type
+        when(roomRepository.findAll()).thenReturn(List.of(
+                room("r1", "Double", 100), room("r2", "Double", 100), room("r3", "Double", 100), room("r4", "Double", 100)));
+        when(pricingRuleRepository.findAll()).thenReturn(rules);
+        when(mongoTemplate.find(any(Query.class), eq(OccupancyCube.class))).thenReturn(cubes);
+
+        service = new PriceCalendarService();
+        ReflectionTestUtils.setField(service, "horizonDays", 400);
+        ReflectionTestUtils.setField(service, "pricingRuleRepository", pricingRuleRepository);
+        ReflectionTestUtils.setField(service, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void seasonAndWeekdayMultipliersCompoundPerNight() {
+        rules.add(season(SATURDAY, SUNDAY, 1.5));
+        rules.add(weekday(DayOfWeek.SATURDAY, 1.2));
+        service.rebuild();
+
+        PriceQuote quote = service.quote("r1", FRIDAY, SUNDAY);
+
+        assertThat(quote.getNightlyPrices()).containsExactly(100.0, 180.0, 150.0);
+        assertThat(quote.getTotal()).isEqualTo(430.0);
+        assertThat(quote.getAveragePerNight()).isEqualTo(143.33);
+        verify(roomRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void onlyTheHighestOccupancyBandReachedApplies() {
+        rules.add(occupancy(0.5, 1.1));
+        rules.add(occupancy(0.75, 1.3));
+        cubes.add(cube(FRIDAY, 2));   // 50%
+        cubes.add(cube(SATURDAY, 3)); // 75%, both bands reached
+        cubes.add(cube(SUNDAY, 1));   // 25%, below every band
+        service.rebuild();
+
+        assertThat(service.quote("r1", FRIDAY, SUNDAY).getNightlyPrices()).containsExactly(110.0, 130.0, 100.0);
+
+        // live bookings move nights across the bands
+        service.sold("hotel-1", "Double", SUNDAY, SUNDAY, 1);
+        service.sold("hotel-1", "Double", SATURDAY, SATURDAY, -2);
+        assertThat(service.quote("r1", FRIDAY, SUNDAY).getNightlyPrices()).containsExactly(110.0, 100.0, 110.0);
+    }
+
+    @Test
+    void rulesForAnotherRoomTypeLeaveThePriceAlone() {
+        PricingRule suites = season(FRIDAY, SUNDAY, 2);
+        suites.setRoomType("Suite");
+        rules.add(suites);
+        service.rebuild();
+
+        assertThat(service.quote("r1", FRIDAY, SUNDAY).getTotal()).isEqualTo(300.0);
+    }
+
+    @Test
+    void rebuildSwapsInTheReloadedRates() {
+        service.rebuild();
+        assertThat(service.quote("r1", FRIDAY, FRIDAY).getTotal()).isEqualTo(100.0);
+
+        when(roomRepository.findAll()).thenReturn(List.of(room("r1", "Double", 120)));
+        service.rebuild();
+
+        assertThat(service.quote("r1", FRIDAY, FRIDAY).getTotal()).isEqualTo(120.0);
+        verify(roomRepository, never()).findById(anyString());
+    }
+
+    private static Room room(String id, String type, double price) {
+        Room room = new Room();
+        room.setId(id);
+        room.setHotelId("hotel-1");
+        room.setType(type);
+        room.setPricePerNight(price);
+        return room;
+    }
+
+    private static OccupancyCube cube(LocalDate day, long nightsSold) {
+        return new OccupancyCube(OccupancyCube.key("hotel-1", "Double", day), "hotel-1", "Double", day, nightsSold, 0, 0);
+    }
+
+    private static PricingRule season(LocalDate from, LocalDate to, double multiplier) {
+        PricingRule rule = rule(PricingRuleType.SEASON, multiplier);
+        rule.setFromDate(from);
+        rule.setToDate(to);
+        return rule;
+    }
+
+    private static PricingRule weekday(DayOfWeek day, double multiplier) {
+        PricingRule rule = rule(PricingRuleType.WEEKDAY, multiplier);
+        rule.setDaysOfWeek(Set.of(day));
+        return rule;
+    }
+
+    private static PricingRule occupancy(double minOccupancy, double multiplier) {
+        PricingRule rule = rule(PricingRuleType.OCCUPANCY, multiplier);
+        rule.setMinOccupancy(minOccupancy);
+        return rule;
+    }
+
+    private static PricingRule rule(PricingRuleType type, double multiplier) {
+        PricingRule rule = new PricingRule();
+        rule.setHotelId("hotel-1");
+        rule.setType(type);
+        rule.setMultiplier(multiplier);
+        return rule;
+    }
+}
@@ -0,0 +1,108 @@
+package com.hotelbooking.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hotelbooking.entity.Booking;
+import com.hotelbooking.enums.BookingStatus;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.RoomHoldRepository;
+
+class RoomAvailabilityIndexTests {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final RoomHoldRepository holdRepository = mock(RoomHoldRepository.class);
+    private final RoomNightLedger roomNightLedger = mock(RoomNightLedger.class);
+    private RoomAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RoomAvailabilityIndex();
+        ReflectionTestUtils.setField(index, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(index, "holdRepository", holdRepository);
+        ReflectionTestUtils.setField(index, "availabilityMatrix", mock(AvailabilityMatrixService.class));
+        ReflectionTestUtils.setField(index, "roomNightLedger", roomNightLedger);
+        when(holdRepository.findByExpiresAtAfter(any())).thenAnswer(invocation -> Stream.empty());
+    }
+
+    @Test
+    void changesMadeDuringARebuildScanSurviveTheSwap() {
+        index.reserve("cancelled-meanwhile", "room-1", DAY, DAY.plusDays(2));
+        when(bookingRepository.findByStatusNotAndToDateGreaterThanEqual(eq(BookingStatus.CANCELLED), any()))
+                .thenAnswer(invocation -> {
+                    // the scan already read this booking when it is cancelled, and misses the new one
+                    index.reserve("booked-meanwhile", "room-2", DAY, DAY);
+                    index.release("cancelled-meanwhile");
+                    return Stream.of(booking("cancelled-meanwhile", "room-1", DAY, DAY.plusDays(2)));
+                });
+
+        index.rebuild();
+
+        assertThat(index.isFree("room-1", DAY, DAY.plusDays(2))).isTrue();
+        assertThat(index.isFree("room-2", DAY, DAY)).isFalse();
+        assertThat(index.stats()).containsEntry("reservations", 1L);
+    }
+
+    @Test
+    void verifyDoesNotCountChangesMadeDuringItsScan() {
+        when(bookingRepository.findByStatusNotAndToDateGreaterThanEqual(eq(BookingStatus.CANCELLED), any()))
+                .thenAnswer(invocation -> {
+                    index.reserve("booked-meanwhile", "room-1", DAY, DAY);
+                    return Stream.empty();
+                });
+
+        assertThat(index.verify()).containsEntry("consistent", true);
+    }
+
+    @Test
+    void refreshReloadsAStaleRoom() {
+        index.reserve("gone", "room-1", DAY, DAY.plusDays(3));
+        when(roomNightLedger.isFree("room-1", DAY, DAY)).thenReturn(true);
+        when(bookingRepository.findByRoomIdAndStatusNotAndToDateGreaterThanEqual(eq("room-1"), eq(BookingStatus.CANCELLED), any()))
+                .thenReturn(List.of(booking("kept", "room-1", DAY.plusDays(3), DAY.plusDays(3))));
+
+        assertThat(index.isBookable("room-1", DAY, DAY)).isTrue();
+        assertThat(index.isFree("room-1", DAY.plusDays(3), DAY.plusDays(3))).isFalse();
+        assertThat(index.stats()).containsEntry("reservations", 1L);
+    }
+
+    @Test
+    void refreshDoesNotDropAReservationMadeWhileItReads() {
+        when(bookingRepository.findByRoomIdAndStatusNotAndToDateGreaterThanEqual(eq("room-1"), eq(BookingStatus.CANCELLED), any()))
+                .thenAnswer(invocation -> {
+                    // only the first read races with a new booking; the retry sees it stored
+                    if (index.isFree("room-1", DAY, DAY)) {
+                        index.reserve("booked-meanwhile", "room-1", DAY, DAY);
+                        return List.of();
+                    }
+                    return List.of(booking("booked-meanwhile", "room-1", DAY, DAY));
+                });
+
+        index.refresh("room-1");
+
+        assertThat(index.isFree("room-1", DAY, DAY)).isFalse();
+    }
+
+    private static Booking booking(String id, String roomId, LocalDate fromDate, LocalDate toDate) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setRoomId(roomId);
+        booking.setFromDate(fromDate);
+        booking.setToDate(toDate);
+        booking.setStatus(BookingStatus.PENDING);
+        return booking;
+    }
+}